@@ -0,0 +1,192 @@
+package com.nexgen.cart_service.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexgen.cart_service.dto.CartItemRequest;
+import com.nexgen.cart_service.dto.CheckoutRequest;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Closed-loop driver: each virtual user is a thread with its own cart that issues its next request as soon as the
+// previous one answers (plus the optional think time). Latency covers the full HTTP round trip through the service.
+@Slf4j
+class CartLoadDriver {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final LoadTestSettings settings;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final List<CartOperation> operations = new ArrayList<>();
+    private final int[] cumulativeWeights;
+
+    CartLoadDriver(String baseUrl, LoadTestSettings settings, ObjectMapper objectMapper) {
+        this.baseUrl = baseUrl;
+        this.settings = settings;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+
+        this.cumulativeWeights = new int[settings.getMix().size()];
+        int total = 0;
+        for (Map.Entry<CartOperation, Integer> entry : settings.getMix().entrySet()) {
+            total += entry.getValue();
+            operations.add(entry.getKey());
+            cumulativeWeights[operations.size() - 1] = total;
+        }
+    }
+
+    LoadReport run(String storeMode) throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        long warmupEnds = System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.getWarmupSeconds());
+        long runEnds = warmupEnds + TimeUnit.SECONDS.toNanos(settings.getDurationSeconds());
+
+        ExecutorService users = Executors.newFixedThreadPool(settings.getVirtualUsers());
+        for (int i = 0; i < settings.getVirtualUsers(); i++) {
+            VirtualUser user = new VirtualUser("load-user-" + i + "-" + UUID.randomUUID());
+            users.submit(() -> user.run(recorder, warmupEnds, runEnds));
+        }
+        users.shutdown();
+        if (!users.awaitTermination(settings.getWarmupSeconds() + settings.getDurationSeconds() + REQUEST_TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+            users.shutdownNow();
+        }
+
+        Map<CartOperation, LoadReport.EndpointStats> endpoints = recorder.summarize(settings.getDurationSeconds());
+        return LoadReport.builder()
+                .generatedAt(Instant.now())
+                .storeMode(storeMode)
+                .virtualUsers(settings.getVirtualUsers())
+                .warmupSeconds(settings.getWarmupSeconds())
+                .durationSeconds(settings.getDurationSeconds())
+                .mix(settings.getMix())
+                .totalOpsPerSecond(endpoints.values().stream().mapToDouble(LoadReport.EndpointStats::getOpsPerSecond).sum())
+                .endpoints(endpoints)
+                .build();
+    }
+
+    private CartOperation nextOperation() {
+        int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations.get(i);
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private class VirtualUser {
+
+        private final String userId;
+        // Local view of the cart (product id to quantity), so removes and checkouts target lines that exist instead of
+        // measuring 404s.
+        private final Map<String, Integer> cart = new HashMap<>();
+
+        VirtualUser(String userId) {
+            this.userId = userId;
+        }
+
+        void run(LatencyRecorder recorder, long warmupEnds, long runEnds) {
+            while (System.nanoTime() < runEnds && !Thread.currentThread().isInterrupted()) {
+                CartOperation operation = nextOperation();
+                if ((operation == CartOperation.REMOVE || operation == CartOperation.CHECKOUT) && cart.isEmpty()) {
+                    operation = CartOperation.ADD;
+                }
+
+                String productId = productFor(operation);
+                HttpRequest request = request(operation, productId);
+                long started = System.nanoTime();
+                boolean success;
+                try {
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    success = response.statusCode() / 100 == 2;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    log.debug("{} failed for {}: {}", operation, userId, e.getMessage());
+                    success = false;
+                }
+                long latency = System.nanoTime() - started;
+
+                if (started >= warmupEnds) {
+                    recorder.record(operation, latency, success);
+                }
+                if (success) {
+                    track(operation, productId);
+                }
+                pause();
+            }
+        }
+
+        private String productFor(CartOperation operation) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return switch (operation) {
+                case ADD -> "load-product-" + random.nextInt(settings.getProducts());
+                case REMOVE -> new ArrayList<>(cart.keySet()).get(random.nextInt(cart.size()));
+                default -> null;
+            };
+        }
+
+        private HttpRequest request(CartOperation operation, String productId) {
+            return switch (operation) {
+                case ADD -> post("/" + userId + "/add", new CartItemRequest(productId, 1, 10 + ThreadLocalRandom.current().nextInt(90)));
+                case REMOVE -> builder("/" + userId + "/remove/" + productId + "/quantity/1").DELETE().build();
+                case GET -> builder("/" + userId).GET().build();
+                case CHECKOUT -> post("/checkout", new CheckoutRequest(userId, "CARD", UUID.randomUUID().toString()));
+            };
+        }
+
+        private void track(CartOperation operation, String productId) {
+            switch (operation) {
+                case ADD -> cart.merge(productId, 1, Integer::sum);
+                case REMOVE -> cart.computeIfPresent(productId, (id, quantity) -> quantity > 1 ? quantity - 1 : null);
+                case CHECKOUT -> cart.clear();
+                default -> {
+                }
+            }
+        }
+
+        private HttpRequest post(String path, Object body) {
+            try {
+                return builder(path)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                        .build();
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private HttpRequest.Builder builder(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+        }
+
+        private void pause() {
+            if (settings.getThinkTimeMs() > 0) {
+                try {
+                    Thread.sleep(settings.getThinkTimeMs());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
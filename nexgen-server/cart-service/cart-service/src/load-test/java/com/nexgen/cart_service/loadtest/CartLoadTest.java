@@ -0,0 +1,82 @@
+package com.nexgen.cart_service.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fppt.jedismock.RedisServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Throughput baseline for the cart hot paths. Run with: mvn -P load-test test
+//   -Dloadtest.users=50 -Dloadtest.warmup-seconds=10 -Dloadtest.duration-seconds=60 -Dloadtest.products=200
+//   -Dloadtest.mix=add:50,get:30,remove:15,checkout:5 -Dloadtest.think-time-ms=0
+//   -Dloadtest.report=target/load-test/cart-baseline.json
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@EmbeddedKafka(partitions = 1, topics = {
+        "cart-cleared", "cart-item-added", "cart-item-removed", "cart-checkout", "cart-items-changed",
+        "cart-expired", "cart-merged", "product-created", "product-updated", "product-deleted"})
+class CartLoadTest {
+
+    private static final RedisServer REDIS = startRedis();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${cart.store.mode}")
+    private String storeMode;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", REDIS::getHost);
+        registry.add("spring.data.redis.port", REDIS::getBindPort);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        REDIS.stop();
+    }
+
+    @Test
+    void measureCartThroughput() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+        LoadReport report = new CartLoadDriver("http://localhost:" + port + "/api/v1/cart", settings, objectMapper).run(storeMode);
+        report.write(settings.getReportPath(), objectMapper);
+
+        report.getEndpoints().forEach((operation, stats) -> log.info("{} {}: {} ops/s, p50 {} ms, p99 {} ms, {} errors of {}",
+                operation, stats.getEndpoint(), String.format("%.1f", stats.getOpsPerSecond()),
+                String.format("%.2f", stats.getP50Ms()), String.format("%.2f", stats.getP99Ms()), stats.getErrors(), stats.getCount()));
+        log.info("Baseline written to {}", settings.getReportPath().toAbsolutePath());
+
+        // The harness measures rather than judges; it only fails when an endpoint got nothing through at all.
+        report.getEndpoints().forEach((operation, stats) ->
+                assertTrue(stats.getErrors() < stats.getCount(), operation + " failed every request"));
+    }
+
+    private static RedisServer startRedis() {
+        try {
+            RedisServer server = RedisServer.newRedisServer();
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.nexgen.cart_service.loadtest;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+enum CartOperation {
+    ADD("POST /api/v1/cart/{userId}/add"),
+    REMOVE("DELETE /api/v1/cart/{userId}/remove/{productId}/quantity/{quantity}"),
+    GET("GET /api/v1/cart/{userId}"),
+    CHECKOUT("POST /api/v1/cart/checkout");
+
+    private final String endpoint;
+}
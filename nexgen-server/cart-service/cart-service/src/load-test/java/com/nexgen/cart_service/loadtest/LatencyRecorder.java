@@ -0,0 +1,72 @@
+package com.nexgen.cart_service.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Keeps every measured latency per operation; a run is short enough that exact percentiles are affordable.
+class LatencyRecorder {
+
+    private final Map<CartOperation, Samples> samples = new EnumMap<>(CartOperation.class);
+
+    LatencyRecorder() {
+        for (CartOperation operation : CartOperation.values()) {
+            samples.put(operation, new Samples());
+        }
+    }
+
+    void record(CartOperation operation, long latencyNanos, boolean success) {
+        samples.get(operation).add(latencyNanos, success);
+    }
+
+    Map<CartOperation, LoadReport.EndpointStats> summarize(double measuredSeconds) {
+        Map<CartOperation, LoadReport.EndpointStats> stats = new EnumMap<>(CartOperation.class);
+        samples.forEach((operation, recorded) -> {
+            if (recorded.count > 0) {
+                stats.put(operation, recorded.summarize(operation, measuredSeconds));
+            }
+        });
+        return stats;
+    }
+
+    private static class Samples {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        synchronized void add(long latencyNanos, boolean success) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized LoadReport.EndpointStats summarize(CartOperation operation, double measuredSeconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return LoadReport.EndpointStats.builder()
+                    .endpoint(operation.getEndpoint())
+                    .count(count)
+                    .errors(errors)
+                    .opsPerSecond(count / measuredSeconds)
+                    .p50Ms(millis(percentile(sorted, 0.50)))
+                    .p99Ms(millis(percentile(sorted, 0.99)))
+                    .maxMs(millis(sorted[count - 1]))
+                    .build();
+        }
+
+        // Nearest-rank percentile.
+        private static long percentile(long[] sorted, double quantile) {
+            int rank = (int) Math.ceil(quantile * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+
+        private static double millis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.nexgen.cart_service.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+
+// Machine-readable baseline: one entry per endpoint, keyed by operation name, so two runs can be diffed field by field.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+class LoadReport {
+    private Instant generatedAt;
+    private String storeMode;
+    private int virtualUsers;
+    private int warmupSeconds;
+    private int durationSeconds;
+    private Map<CartOperation, Integer> mix;
+    private double totalOpsPerSecond;
+    private Map<CartOperation, EndpointStats> endpoints;
+
+    void write(Path path, ObjectMapper objectMapper) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), this);
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    static class EndpointStats {
+        private String endpoint;
+        private long count;
+        private long errors;
+        private double opsPerSecond;
+        private double p50Ms;
+        private double p99Ms;
+        private double maxMs;
+    }
+}
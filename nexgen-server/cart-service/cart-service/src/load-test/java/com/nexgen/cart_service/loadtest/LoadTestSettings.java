@@ -0,0 +1,62 @@
+package com.nexgen.cart_service.loadtest;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Shape of a run, read from -Dloadtest.* system properties so a baseline can be re-run with the same settings.
+@Getter
+class LoadTestSettings {
+
+    private final int virtualUsers;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+    private final int products;
+    private final long thinkTimeMs;
+    // Relative weights, e.g. "add:50,get:30,remove:15,checkout:5".
+    private final Map<CartOperation, Integer> mix;
+    private final Path reportPath;
+
+    private LoadTestSettings(int virtualUsers, int warmupSeconds, int durationSeconds, int products, long thinkTimeMs,
+                             Map<CartOperation, Integer> mix, Path reportPath) {
+        this.virtualUsers = virtualUsers;
+        this.warmupSeconds = warmupSeconds;
+        this.durationSeconds = durationSeconds;
+        this.products = products;
+        this.thinkTimeMs = thinkTimeMs;
+        this.mix = mix;
+        this.reportPath = reportPath;
+    }
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.users", 50),
+                Integer.getInteger("loadtest.warmup-seconds", 10),
+                Integer.getInteger("loadtest.duration-seconds", 60),
+                Integer.getInteger("loadtest.products", 200),
+                Long.getLong("loadtest.think-time-ms", 0),
+                parseMix(System.getProperty("loadtest.mix", "add:50,get:30,remove:15,checkout:5")),
+                Path.of(System.getProperty("loadtest.report", "target/load-test/cart-baseline.json")));
+    }
+
+    static Map<CartOperation, Integer> parseMix(String mix) {
+        Map<CartOperation, Integer> weights = new EnumMap<>(CartOperation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries look like operation:weight, got '" + entry + "'");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(CartOperation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix needs at least one operation with a positive weight");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,47 @@
+package com.nexgen.cart_service.config;
+
+import com.nexgen.cart_service.util.CartShardContext;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Hands out connections from the pool of the shard set in CartShardContext. Everything built on the datasource (JPA,
+// its transaction manager) therefore binds each transaction to the shard that was current when it began.
+public class CartRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    @Getter
+    private final Map<String, DataSource> shards;
+
+    @Getter
+    private final List<String> ringShards;
+
+    public CartRoutingDataSource(Map<String, DataSource> shards, List<String> ringShards) {
+        this.shards = shards;
+        this.ringShards = ringShards;
+        setTargetDataSources(new HashMap<>(shards));
+        // Connections taken without a shard (Hibernate bootstrap, schema update) go to the first shard; an unknown
+        // shard name is a routing bug and fails instead of silently landing there too.
+        setDefaultTargetDataSource(shards.values().iterator().next());
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return CartShardContext.current();
+    }
+
+    @Override
+    public void destroy() {
+        shards.values().forEach(dataSource -> {
+            if (dataSource instanceof HikariDataSource pool) {
+                pool.close();
+            }
+        });
+    }
+}
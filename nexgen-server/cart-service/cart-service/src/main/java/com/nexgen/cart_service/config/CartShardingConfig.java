@@ -0,0 +1,67 @@
+package com.nexgen.cart_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Replaces the single spring.datasource pool with one pool per cart shard behind a routing datasource.
+@Configuration
+@ConditionalOnProperty(name = "cart.sharding.enabled", havingValue = "true")
+public class CartShardingConfig {
+
+    @Bean
+    @Primary
+    public CartRoutingDataSource dataSource(Environment environment,
+                                            @Value("${spring.datasource.driver-class-name}") String driverClassName) {
+        List<ShardProperties> shards = Binder.get(environment)
+                .bind("cart.sharding.shards", Bindable.listOf(ShardProperties.class))
+                .orElseThrow(() -> new IllegalStateException("cart.sharding.enabled is set but no cart.sharding.shards are configured"));
+
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        List<String> ringShards = new ArrayList<>();
+        for (ShardProperties shard : shards) {
+            // Pools start on first use, so a shard that is down does not stop the others from serving.
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("cart-" + shard.getName());
+            pool.setDriverClassName(driverClassName);
+            pool.setJdbcUrl(shard.getUrl());
+            pool.setUsername(shard.getUsername());
+            pool.setPassword(shard.getPassword());
+            pool.setMaximumPoolSize(shard.getMaxPoolSize());
+            pools.put(shard.getName(), pool);
+
+            if (shard.isRing()) {
+                ringShards.add(shard.getName());
+            }
+        }
+
+        if (ringShards.isEmpty()) {
+            throw new IllegalStateException("At least one cart shard must be on the hash ring");
+        }
+        return new CartRoutingDataSource(pools, ringShards);
+    }
+
+    @Data
+    public static class ShardProperties {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maxPoolSize = 10;
+        // Off for a shard that only receives users through re-sharding moves.
+        private boolean ring = true;
+    }
+}
@@ -0,0 +1,18 @@
+package com.nexgen.cart_service.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class CartStreamConfig {
+
+    // Channels are subscribed and unsubscribed at runtime as SSE clients come and go on this instance.
+    @Bean
+    public RedisMessageListenerContainer cartStreamListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+}
@@ -0,0 +1,39 @@
+package com.nexgen.cart_service.config;
+
+import com.nexgen.cart_service.util.RetryBudget;
+import io.github.resilience4j.common.retry.configuration.RetryConfigCustomizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// One budget and one customizer per Resilience4j retry instance; settings live under cart.retry-budget.<instance>.
+@Configuration
+public class RetryBudgetConfig {
+
+    private static final String CART_SERVICE_RETRY = "cartServiceRetry";
+
+    @Bean
+    public RetryBudget cartServiceRetryBudget(
+            @Value("${cart.retry-budget.cartServiceRetry.ratio:0.1}") double ratio,
+            @Value("${cart.retry-budget.cartServiceRetry.min-retries-per-second:1}") int minRetriesPerSecond,
+            @Value("${cart.retry-budget.cartServiceRetry.window-seconds:10}") int windowSeconds) {
+        return new RetryBudget(CART_SERVICE_RETRY, ratio, minRetriesPerSecond, windowSeconds);
+    }
+
+    @Bean
+    public RetryConfigCustomizer cartServiceRetryBudgetCustomizer(RetryBudget cartServiceRetryBudget, MeterRegistry meterRegistry) {
+        return budgeted(cartServiceRetryBudget, meterRegistry);
+    }
+
+    // Once the budget is spent the failure is not retried: it goes straight to the method's fallback.
+    private RetryConfigCustomizer budgeted(RetryBudget budget, MeterRegistry meterRegistry) {
+        return RetryConfigCustomizer.of(budget.getInstance(), builder -> builder.retryOnException(throwable -> {
+            if (budget.canRetry()) {
+                return true;
+            }
+            meterRegistry.counter("cart.retry.budget.denied", "instance", budget.getInstance()).increment();
+            return false;
+        }));
+    }
+}
@@ -1,16 +1,18 @@
 package com.nexgen.cart_service.controller;
 
 import com.nexgen.cart_service.dto.*;
-import com.nexgen.cart_service.entity.CartItem;
 import com.nexgen.cart_service.exception.InvalidQuantityException;
-import com.nexgen.cart_service.service.CartEventProducerService;
 import com.nexgen.cart_service.service.CartService;
+import com.nexgen.cart_service.service.CartStreamService;
+import com.nexgen.cart_service.service.ProductPriceClient;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -21,13 +23,30 @@ import java.util.List;
 public class CartController {
 
     private final CartService cartService;
-    private final CartEventProducerService cartEventProducer;
+    private final CartStreamService cartStreamService;
+    private final ProductPriceClient productPriceClient;
 
     @Operation(summary = "Get current items in the cart")
     @GetMapping("/{userId}")
     public ResponseEntity<ApiResponse<List<CartItemResponse>>> getCartByUser(@PathVariable String userId) {
-        List<CartItemResponse> items = cartService.getCartByUser(userId);
-        return ResponseEntity.ok(ApiResponse.success(items, "Cart items retrieved successfully"));
+        CartView cart = cartService.getCartByUser(userId);
+        if (cart.isStale()) {
+            return ResponseEntity.ok(ApiResponse.stale(cart.getItems(), "Cart store is recovering; showing the last saved cart"));
+        }
+        return ResponseEntity.ok(ApiResponse.success(cart.getItems(), "Cart items retrieved successfully"));
+    }
+
+    @Operation(summary = "Get item count and totals of the cart")
+    @GetMapping("/{userId}/summary")
+    public ResponseEntity<ApiResponse<CartSummaryResponse>> getSummary(@PathVariable String userId) {
+        CartSummaryResponse summary = cartService.getSummary(userId);
+        return ResponseEntity.ok(ApiResponse.success(summary, "Cart summary retrieved successfully"));
+    }
+
+    @Operation(summary = "Stream cart changes as server-sent events")
+    @GetMapping(value = "/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCart(@PathVariable String userId) {
+        return cartStreamService.subscribe(userId);
     }
 
     @Operation(summary = "Add an item to the cart")
@@ -36,12 +55,8 @@ public class CartController {
             @PathVariable String userId,
             @Valid @RequestBody CartItemRequest itemRequest
     ) {
+        productPriceClient.validateItem(itemRequest);
         CartItemResponse item = cartService.addItemToCart(userId, itemRequest);
-
-        cartEventProducer.sendAddToCartEvent(
-                new AddToCartEvent(userId, item.getProductId(), item.getQuantity(), item.getPrice())
-        );
-
         return ResponseEntity.ok(ApiResponse.success(item, "Item added to cart"));
     }
 
@@ -57,25 +72,35 @@ public class CartController {
         }
 
         CartItemResponse item = cartService.removeItemQuantity(userId, productId, quantity);
+        return ResponseEntity.ok(ApiResponse.success(item, "Item quantity removed from cart"));
+    }
+
+    @Operation(summary = "Apply a batch of add/set/remove operations to the cart")
+    @PostMapping("/{userId}/items:batch")
+    public ResponseEntity<ApiResponse<List<CartItemResponse>>> applyBatch(
+            @PathVariable String userId,
+            @Valid @RequestBody CartBatchRequest request) {
 
-        cartEventProducer.sendRemoveFromCartEvent(
-                new RemoveFromCartEvent(userId, productId, quantity, "Item removed from cart")
-        );
+        productPriceClient.validateBatch(request);
+        CartBatchResponse result = cartService.applyBatch(userId, request);
+        return ResponseEntity.ok(ApiResponse.success(result.getItems(), "Cart batch applied"));
+    }
 
-        return ResponseEntity.ok(ApiResponse.success(item, "Item quantity removed from cart"));
+    @Operation(summary = "Merge a guest cart into the user's cart")
+    @PostMapping("/{userId}/merge/{guestId}")
+    public ResponseEntity<ApiResponse<List<CartItemResponse>>> mergeGuestCart(
+            @PathVariable String userId,
+            @PathVariable String guestId,
+            @RequestParam(required = false) CartMergePolicy policy) {
+
+        List<CartItemResponse> items = cartService.mergeGuestCart(userId, guestId, policy);
+        return ResponseEntity.ok(ApiResponse.success(items, "Guest cart merged"));
     }
 
     @Operation(summary = "Clear the cart")
     @DeleteMapping("/{userId}/clear")
     public ResponseEntity<ApiResponse<Void>> clearCart(@PathVariable String userId) {
         cartService.clearCart(userId);
-
-        List<CartItem> items = cartService.getItemsByUserId(userId);
-        int totalQuantity = items.stream().mapToInt(CartItem::getQuantity).sum();
-
-        CartClearedEvent event = new CartClearedEvent(userId, totalQuantity, "Cart cleared successfully.");
-        cartEventProducer.sendCartClearedEvent(event);
-
         return ResponseEntity.ok(ApiResponse.success(null, "Cart cleared successfully"));
     }
 
@@ -84,17 +109,6 @@ public class CartController {
     @PostMapping("/checkout")
     public ResponseEntity<ApiResponse<CheckoutResponse>> checkout(@Valid @RequestBody CheckoutRequest request) {
         CheckoutResponse response = cartService.checkout(request);
-        List<CartItem> items = cartService.getItemsByUserId(request.getUserId());
-
-        cartEventProducer.sendCheckoutEvent(
-                new CheckoutEvent(
-                        request.getUserId(),
-                        items.stream().map(CartItem::getProductId).toList(),
-                        response.getTotalAmount(),
-                        "Checkout completed"
-                )
-        );
-
         return ResponseEntity.ok(ApiResponse.success(response, "Checkout successful"));
     }
 }
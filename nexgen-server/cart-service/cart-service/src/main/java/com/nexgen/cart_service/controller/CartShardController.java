@@ -0,0 +1,41 @@
+package com.nexgen.cart_service.controller;
+
+import com.nexgen.cart_service.dto.ApiResponse;
+import com.nexgen.cart_service.dto.CartShardMoveRequest;
+import com.nexgen.cart_service.dto.CartShardMoveResponse;
+import com.nexgen.cart_service.service.CartReshardService;
+import com.nexgen.cart_service.service.CartShardRoute;
+import com.nexgen.cart_service.service.CartShardRouter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/cart/shards")
+@Tag(name = "Cart Shard Controller", description = "Inspect and move cart shard routes")
+@ConditionalOnProperty(name = "cart.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class CartShardController {
+
+    private final CartShardRouter cartShardRouter;
+    private final CartReshardService cartReshardService;
+
+    @Operation(summary = "List hash ranges pinned to a shard by earlier moves")
+    @GetMapping("/routes")
+    public ResponseEntity<ApiResponse<List<CartShardRoute>>> getRoutes() {
+        return ResponseEntity.ok(ApiResponse.success(cartShardRouter.routes(), "Cart shard routes retrieved successfully"));
+    }
+
+    @Operation(summary = "Copy the carts of a user hash range to another shard and switch their routing to it")
+    @PostMapping("/moves")
+    public ResponseEntity<ApiResponse<CartShardMoveResponse>> moveRange(@Valid @RequestBody CartShardMoveRequest request) {
+        CartShardMoveResponse move = cartReshardService.moveRange(request.getStartHash(), request.getEndHash(), request.getTargetShard());
+        return ResponseEntity.ok(ApiResponse.success(move, "Cart shard move completed"));
+    }
+}
@@ -14,6 +14,7 @@ public class ApiResponse<T> {
     private boolean success;
     private String message;
     private T data;
+    private boolean stale;
     private List<String> errors;
     private Instant timestamp;
 
@@ -26,6 +27,16 @@ public class ApiResponse<T> {
                 .build();
     }
 
+    public static <T> ApiResponse<T> stale(T data, String message) {
+        return ApiResponse.<T>builder()
+                .success(true)
+                .stale(true)
+                .message(message)
+                .data(data)
+                .timestamp(Instant.now())
+                .build();
+    }
+
     public static <T> ApiResponse<T> success(T data) {
         return success(data, "Request processed successfully.");
     }
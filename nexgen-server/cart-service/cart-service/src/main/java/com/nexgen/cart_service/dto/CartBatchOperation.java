@@ -0,0 +1,25 @@
+package com.nexgen.cart_service.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBatchOperation {
+    @NotNull(message = "Operation type is required")
+    private CartOperationType type;
+
+    @NotBlank(message = "Product ID is required")
+    private String productId;
+
+    @Min(value = 0, message = "Quantity must be non-negative")
+    private int quantity;
+
+    @Min(value = 0, message = "Price must be non-negative")
+    private Double price; // required for ADD, optional for SET (keeps the current unit price)
+}
@@ -0,0 +1,19 @@
+package com.nexgen.cart_service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBatchRequest {
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = 200, message = "A batch can contain at most 200 operations")
+    private List<@Valid CartBatchOperation> operations;
+}
@@ -0,0 +1,17 @@
+package com.nexgen.cart_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBatchResponse {
+    private List<CartItemResponse> items;
+    private List<CartItemDelta> changes;
+}
@@ -0,0 +1,27 @@
+package com.nexgen.cart_service.dto;
+
+import java.util.Map;
+
+public final class CartEventTypes {
+
+    private static final Map<String, Class<?>> TYPES = Map.of(
+            AddToCartEvent.class.getSimpleName(), AddToCartEvent.class,
+            RemoveFromCartEvent.class.getSimpleName(), RemoveFromCartEvent.class,
+            CartClearedEvent.class.getSimpleName(), CartClearedEvent.class,
+            CheckoutEvent.class.getSimpleName(), CheckoutEvent.class,
+            CartItemsChangedEvent.class.getSimpleName(), CartItemsChangedEvent.class,
+            CartsExpiredEvent.class.getSimpleName(), CartsExpiredEvent.class,
+            CartMergedEvent.class.getSimpleName(), CartMergedEvent.class
+    );
+
+    private CartEventTypes() {
+    }
+
+    public static Class<?> resolve(String eventType) {
+        Class<?> type = TYPES.get(eventType);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown cart event type: " + eventType);
+        }
+        return type;
+    }
+}
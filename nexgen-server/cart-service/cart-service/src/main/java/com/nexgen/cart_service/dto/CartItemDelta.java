@@ -0,0 +1,14 @@
+package com.nexgen.cart_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemDelta {
+    private String productId;
+    private int quantityDelta;
+    private double amountDelta;
+}
@@ -0,0 +1,16 @@
+package com.nexgen.cart_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemsChangedEvent {
+    private String userId;
+    private List<CartItemDelta> changes;
+    private String message;
+}
@@ -0,0 +1,14 @@
+package com.nexgen.cart_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartLineItem {
+    private String productId;
+    private int quantity;
+    private double amount;
+}
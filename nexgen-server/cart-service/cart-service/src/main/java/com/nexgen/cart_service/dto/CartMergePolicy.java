@@ -0,0 +1,9 @@
+package com.nexgen.cart_service.dto;
+
+// How to resolve a product that is in both the user's and the guest's cart.
+public enum CartMergePolicy {
+    SUM,
+    MAX,
+    KEEP_USER,
+    KEEP_GUEST
+}
@@ -0,0 +1,18 @@
+package com.nexgen.cart_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartMergedEvent {
+    private String userId;
+    private String guestId;
+    private CartMergePolicy policy;
+    private List<CartLineItem> items;
+    private String message;
+}
@@ -0,0 +1,7 @@
+package com.nexgen.cart_service.dto;
+
+public enum CartOperationType {
+    ADD,
+    SET,
+    REMOVE
+}
@@ -0,0 +1,19 @@
+package com.nexgen.cart_service.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outbox record kept in Redis when carts live there; the event is nested so cart scripts can fill in their results.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOutboxEntry {
+    private String topic;
+    private String eventKey;
+    private String eventType;
+    private JsonNode event;
+}
@@ -0,0 +1,21 @@
+package com.nexgen.cart_service.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartShardMoveRequest {
+    @NotNull(message = "Start hash is required")
+    private Long startHash; // inclusive
+
+    @NotNull(message = "End hash is required")
+    private Long endHash; // exclusive
+
+    @NotBlank(message = "Target shard is required")
+    private String targetShard;
+}
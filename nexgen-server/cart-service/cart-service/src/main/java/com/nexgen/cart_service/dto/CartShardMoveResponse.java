@@ -0,0 +1,18 @@
+package com.nexgen.cart_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CartShardMoveResponse {
+    private long startHash;
+    private long endHash;
+    private String targetShard;
+    private int usersMoved;
+    private int rowsCopied;
+}
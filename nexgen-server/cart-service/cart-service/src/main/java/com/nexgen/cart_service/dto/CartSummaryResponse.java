@@ -0,0 +1,17 @@
+package com.nexgen.cart_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CartSummaryResponse {
+    private String userId;
+    private int itemCount;
+    private int totalQuantity;
+    private double totalAmount;
+}
@@ -0,0 +1,15 @@
+package com.nexgen.cart_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartView {
+    private List<CartItemResponse> items;
+    private boolean stale; // served from the saved copy because the cart store is unavailable or slow
+}
@@ -0,0 +1,18 @@
+package com.nexgen.cart_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartsExpiredEvent {
+    private List<String> userIds;
+    private int itemCount;
+    private Instant idleSince;
+    private String message;
+}
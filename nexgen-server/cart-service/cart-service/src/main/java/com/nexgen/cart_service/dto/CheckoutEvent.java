@@ -14,4 +14,5 @@ public class CheckoutEvent {
     private List<String> productIds;
     private double totalAmount;
     private String message;
+    private List<CartLineItem> items;
 }
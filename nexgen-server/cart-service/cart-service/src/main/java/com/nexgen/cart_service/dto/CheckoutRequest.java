@@ -1,10 +1,13 @@
 package com.nexgen.cart_service.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
 public class CheckoutRequest {
     @NotBlank(message = "User ID is required")
@@ -12,4 +15,7 @@ public class CheckoutRequest {
 
     @NotBlank(message = "Payment Method is required")
     private String paymentMethod; // e.g., "CARD", "UPI", "COD"
+
+    @Size(max = 64, message = "Idempotency key must be at most 64 characters")
+    private String idempotencyKey; // optional, repeats within the idempotency window replay the first response
 }
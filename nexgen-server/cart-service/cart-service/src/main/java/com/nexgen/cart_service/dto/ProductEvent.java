@@ -0,0 +1,18 @@
+package com.nexgen.cart_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Subset of product-service's product event that cart-service needs to keep its price cache fresh.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProductEvent {
+    private String skuCode;
+    private String eventType;
+    private Double price;
+    private long timestamp;
+}
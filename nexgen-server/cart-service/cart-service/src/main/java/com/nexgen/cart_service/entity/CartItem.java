@@ -3,8 +3,14 @@ package com.nexgen.cart_service.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+
 @Entity
-@Table(name = "cart_items")
+@Table(
+        name = "cart_items",
+        uniqueConstraints = @UniqueConstraint(name = "uk_cart_items_user_product", columnNames = {"user_id", "product_id"}),
+        indexes = @Index(name = "idx_cart_items_user_updated_at", columnList = "user_id, updated_at")
+)
 @Data
 @Builder
 @NoArgsConstructor
@@ -23,6 +29,14 @@ public class CartItem {
 
     private double price;
 
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
     public double getTotalPrice() {
         return price * quantity;
     }
@@ -0,0 +1,31 @@
+package com.nexgen.cart_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "cart_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String topic;
+
+    private String eventKey;
+
+    private String eventType;
+
+    @Column(columnDefinition = "NVARCHAR(MAX)")
+    private String payload;
+
+    private Instant createdAt;
+
+}
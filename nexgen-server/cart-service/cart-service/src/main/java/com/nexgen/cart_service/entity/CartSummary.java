@@ -0,0 +1,32 @@
+package com.nexgen.cart_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "cart_summaries")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSummary {
+
+    @Id
+    private String userId;
+
+    private int itemCount;
+
+    private int totalQuantity;
+
+    private double totalAmount;
+
+    private Instant updatedAt;
+
+    // Written only by the summary statements; a re-inserted row starts from the clock so it never reuses a version.
+    @Column(insertable = false, updatable = false,
+            columnDefinition = "BIGINT NOT NULL DEFAULT DATEDIFF_BIG(MILLISECOND, '2000-01-01', SYSUTCDATETIME())")
+    private long version;
+
+}
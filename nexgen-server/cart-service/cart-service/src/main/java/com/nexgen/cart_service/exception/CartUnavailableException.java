@@ -0,0 +1,7 @@
+package com.nexgen.cart_service.exception;
+
+public class CartUnavailableException extends RuntimeException {
+    public CartUnavailableException(String message) {
+        super(message);
+    }
+}
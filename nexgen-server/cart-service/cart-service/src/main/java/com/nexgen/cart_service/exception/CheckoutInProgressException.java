@@ -0,0 +1,7 @@
+package com.nexgen.cart_service.exception;
+
+public class CheckoutInProgressException extends RuntimeException {
+    public CheckoutInProgressException(String message) {
+        super(message);
+    }
+}
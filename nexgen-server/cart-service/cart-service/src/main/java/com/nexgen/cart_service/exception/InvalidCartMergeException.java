@@ -0,0 +1,7 @@
+package com.nexgen.cart_service.exception;
+
+public class InvalidCartMergeException extends RuntimeException {
+    public InvalidCartMergeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.nexgen.cart_service.exception;
+
+public class InvalidShardMoveException extends RuntimeException {
+    public InvalidShardMoveException(String message) {
+        super(message);
+    }
+}
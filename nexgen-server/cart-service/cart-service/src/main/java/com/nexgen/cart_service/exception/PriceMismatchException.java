@@ -0,0 +1,7 @@
+package com.nexgen.cart_service.exception;
+
+public class PriceMismatchException extends RuntimeException {
+    public PriceMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.nexgen.cart_service.exception;
+
+public class ProductNotFoundException extends RuntimeException {
+    public ProductNotFoundException(String message) {
+        super(message);
+    }
+}
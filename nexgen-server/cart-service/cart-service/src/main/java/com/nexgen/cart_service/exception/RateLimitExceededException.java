@@ -0,0 +1,7 @@
+package com.nexgen.cart_service.exception;
+
+public class RateLimitExceededException extends RuntimeException {
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.nexgen.cart_service.exception;
+
+public class ShardMoveInProgressException extends RuntimeException {
+    public ShardMoveInProgressException(String message) {
+        super(message);
+    }
+}
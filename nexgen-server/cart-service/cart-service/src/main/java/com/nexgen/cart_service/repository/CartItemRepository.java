@@ -2,14 +2,84 @@ package com.nexgen.cart_service.repository;
 
 import com.nexgen.cart_service.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
     List<CartItem> findByUserId(String userId);
-    void deleteByUserId(String userId);
-    boolean existsByUserIdAndProductId(String userId, String productId);
     CartItem findByUserIdAndProductId(String userId, String productId);
 
+    @Modifying
+    @Query("DELETE FROM CartItem c WHERE c.userId IN :userIds")
+    int deleteByUserIdIn(@Param("userIds") Collection<String> userIds);
+
+    @Query(value = "DELETE FROM cart_items OUTPUT deleted.* WHERE user_id = :userId", nativeQuery = true)
+    List<CartItem> deleteAllByUserIdReturning(@Param("userId") String userId);
+
+    @Query(value = """
+            MERGE cart_items WITH (HOLDLOCK) AS target
+            USING (SELECT :userId AS user_id, :productId AS product_id) AS source
+                ON target.user_id = source.user_id AND target.product_id = source.product_id
+            WHEN MATCHED THEN
+                UPDATE SET quantity = target.quantity + :quantity, price = target.price + :amount, updated_at = SYSUTCDATETIME()
+            WHEN NOT MATCHED THEN
+                INSERT (user_id, product_id, quantity, price, updated_at)
+                VALUES (:userId, :productId, :quantity, :amount, SYSUTCDATETIME())
+            OUTPUT inserted.*;
+            """, nativeQuery = true)
+    CartItem upsertItem(@Param("userId") String userId,
+                        @Param("productId") String productId,
+                        @Param("quantity") int quantity,
+                        @Param("amount") double amount);
+
+    @Query(value = """
+            MERGE cart_items WITH (HOLDLOCK) AS target
+            USING (SELECT product_id, quantity, price FROM cart_items WHERE user_id = :guestId) AS source
+                ON target.user_id = :userId AND target.product_id = source.product_id
+            WHEN MATCHED AND (:policy = 'SUM' OR :policy = 'KEEP_GUEST'
+                              OR (:policy = 'MAX' AND source.quantity > target.quantity)) THEN
+                UPDATE SET quantity = CASE WHEN :policy = 'SUM' THEN target.quantity + source.quantity ELSE source.quantity END,
+                           price = CASE WHEN :policy = 'SUM' THEN target.price + source.price ELSE source.price END,
+                           updated_at = SYSUTCDATETIME()
+            WHEN NOT MATCHED THEN
+                INSERT (user_id, product_id, quantity, price, updated_at)
+                VALUES (:userId, source.product_id, source.quantity, source.price, SYSUTCDATETIME())
+            OUTPUT inserted.*;
+            """, nativeQuery = true)
+    List<CartItem> mergeGuestItems(@Param("userId") String userId,
+                                   @Param("guestId") String guestId,
+                                   @Param("policy") String policy);
+
+    @Query(value = """
+            SELECT TOP (:limit) user_id
+            FROM cart_items
+            WHERE user_id > :afterUserId
+            GROUP BY user_id
+            HAVING MAX(updated_at) < :cutoff
+            ORDER BY user_id
+            """, nativeQuery = true)
+    List<String> findIdleUserIds(@Param("afterUserId") String afterUserId,
+                                 @Param("cutoff") Instant cutoff,
+                                 @Param("limit") int limit);
+
+    // Re-checks idleness so a cart touched after findIdleUserIds is left alone; returns one user_id per deleted row.
+    @Query(value = """
+            DELETE c
+            OUTPUT deleted.user_id
+            FROM cart_items AS c
+            WHERE c.user_id IN (:userIds)
+              AND NOT EXISTS (SELECT 1 FROM cart_items r WHERE r.user_id = c.user_id AND r.updated_at >= :cutoff)
+            """, nativeQuery = true)
+    List<String> deleteIdleByUserIdIn(@Param("userIds") Collection<String> userIds, @Param("cutoff") Instant cutoff);
+
+    @Modifying
+    @Query(value = "UPDATE TOP (:limit) cart_items SET updated_at = SYSUTCDATETIME() WHERE updated_at IS NULL", nativeQuery = true)
+    int backfillUpdatedAt(@Param("limit") int limit);
+
 }
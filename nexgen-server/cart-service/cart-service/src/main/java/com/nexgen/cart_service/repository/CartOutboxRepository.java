@@ -0,0 +1,13 @@
+package com.nexgen.cart_service.repository;
+
+import com.nexgen.cart_service.entity.CartOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface CartOutboxRepository extends JpaRepository<CartOutboxEvent, Long> {
+
+    List<CartOutboxEvent> findAllByOrderByIdAsc(Pageable pageable);
+
+}
@@ -0,0 +1,81 @@
+package com.nexgen.cart_service.repository;
+
+import com.nexgen.cart_service.entity.CartSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+public interface CartSummaryRepository extends JpaRepository<CartSummary, String> {
+
+    // HOLDLOCK serializes concurrent first writes: the loser sees the row the winner inserted and adds its delta to it.
+    // A missing header is rebuilt from the item rows, which already include the caller's change. The version moves in
+    // the same statement, under the row lock, so versions follow the order in which changes commit.
+    @Query(value = """
+            MERGE cart_summaries WITH (HOLDLOCK) AS target
+            USING (SELECT :userId AS user_id, COUNT(*) AS item_count,
+                          COALESCE(SUM(quantity), 0) AS total_quantity, COALESCE(SUM(price), 0) AS total_amount
+                   FROM cart_items
+                   WHERE user_id = :userId) AS source
+                ON target.user_id = source.user_id
+            WHEN MATCHED THEN
+                UPDATE SET item_count = target.item_count + :itemCountDelta,
+                           total_quantity = target.total_quantity + :quantityDelta,
+                           total_amount = target.total_amount + :amountDelta,
+                           version = target.version + 1,
+                           updated_at = SYSUTCDATETIME()
+            WHEN NOT MATCHED THEN
+                INSERT (user_id, item_count, total_quantity, total_amount, updated_at)
+                VALUES (source.user_id, source.item_count, source.total_quantity, source.total_amount, SYSUTCDATETIME())
+            OUTPUT inserted.version;
+            """, nativeQuery = true)
+    Long applyDelta(@Param("userId") String userId,
+                    @Param("itemCountDelta") int itemCountDelta,
+                    @Param("quantityDelta") int quantityDelta,
+                    @Param("amountDelta") double amountDelta);
+
+    // Replaces the totals with the item rows as they stand, for changes that are easier to recount than to diff.
+    @Query(value = """
+            MERGE cart_summaries WITH (HOLDLOCK) AS target
+            USING (SELECT :userId AS user_id, COUNT(*) AS item_count,
+                          COALESCE(SUM(quantity), 0) AS total_quantity, COALESCE(SUM(price), 0) AS total_amount
+                   FROM cart_items
+                   WHERE user_id = :userId) AS source
+                ON target.user_id = source.user_id
+            WHEN MATCHED THEN
+                UPDATE SET item_count = source.item_count,
+                           total_quantity = source.total_quantity,
+                           total_amount = source.total_amount,
+                           version = target.version + 1,
+                           updated_at = SYSUTCDATETIME()
+            WHEN NOT MATCHED THEN
+                INSERT (user_id, item_count, total_quantity, total_amount, updated_at)
+                VALUES (source.user_id, source.item_count, source.total_quantity, source.total_amount, SYSUTCDATETIME())
+            OUTPUT inserted.version;
+            """, nativeQuery = true)
+    Long rebuildFromItems(@Param("userId") String userId);
+
+    @Modifying
+    @Query(value = """
+            MERGE cart_summaries WITH (HOLDLOCK) AS target
+            USING (SELECT :userId AS user_id, COUNT(*) AS item_count,
+                          COALESCE(SUM(quantity), 0) AS total_quantity, COALESCE(SUM(price), 0) AS total_amount
+                   FROM cart_items
+                   WHERE user_id = :userId) AS source
+                ON target.user_id = source.user_id
+            WHEN NOT MATCHED THEN
+                INSERT (user_id, item_count, total_quantity, total_amount, updated_at)
+                VALUES (source.user_id, source.item_count, source.total_quantity, source.total_amount, SYSUTCDATETIME());
+            """, nativeQuery = true)
+    int insertFromItems(@Param("userId") String userId);
+
+    @Query(value = "SELECT version FROM cart_summaries WHERE user_id = :userId", nativeQuery = true)
+    Long findVersion(@Param("userId") String userId);
+
+    @Modifying
+    @Query("DELETE FROM CartSummary s WHERE s.userId IN :userIds")
+    int deleteByUserIdIn(@Param("userIds") Collection<String> userIds);
+
+}
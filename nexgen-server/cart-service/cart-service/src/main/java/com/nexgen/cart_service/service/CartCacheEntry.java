@@ -0,0 +1,17 @@
+package com.nexgen.cart_service.service;
+
+import com.nexgen.cart_service.dto.CartItemResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Cached cart lines tagged with the cart version they reflect.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartCacheEntry {
+    private long version;
+    private List<CartItemResponse> items;
+}
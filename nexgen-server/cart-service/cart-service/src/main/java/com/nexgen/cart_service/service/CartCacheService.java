@@ -0,0 +1,281 @@
+package com.nexgen.cart_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexgen.cart_service.dto.CartItemResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CartCacheService {
+
+    private static final String CART_KEY_PREFIX = "cart::";
+    private static final String VERSION_KEY_PREFIX = "cart:version:";
+    private static final String SHADOW_KEY_PREFIX = "cart:shadow:";
+    private static final RedisScript<Long> BUMP_SCRIPT = RedisScript.of(new ClassPathResource("scripts/cart-cache-bump.lua"), Long.class);
+    private static final RedisScript<Long> ADVANCE_SCRIPT = RedisScript.of(new ClassPathResource("scripts/cart-cache-advance.lua"), Long.class);
+    private static final int MAX_CAS_ATTEMPTS = 3;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisCartStore redisCartStore;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cart.cache.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    @Value("${cart.cache.shadow-ttl-hours:72}")
+    private long shadowTtlHours;
+
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter writeThroughCounter;
+    private Counter conflictCounter;
+    private Counter staleServedCounter;
+
+    @PostConstruct
+    public void initCounters() {
+        this.hitCounter = meterRegistry.counter("cart.cache.hit");
+        this.missCounter = meterRegistry.counter("cart.cache.miss");
+        this.writeThroughCounter = meterRegistry.counter("cart.cache.writethrough");
+        this.conflictCounter = meterRegistry.counter("cart.cache.conflict");
+        this.staleServedCounter = meterRegistry.counter("cart.cache.stale.served");
+    }
+
+    public List<CartItemResponse> get(String userId) {
+        CartCacheEntry entry = read(redisTemplate.opsForValue().get(cartKey(userId)));
+        if (entry == null) {
+            missCounter.increment();
+            return null;
+        }
+        hitCounter.increment();
+        return entry.getItems();
+    }
+
+    // Last cart this service cached for the user; kept far longer than the cache for degraded reads, and dropped by
+    // any committed write that does not bring it up to date.
+    public List<CartItemResponse> getShadow(String userId) {
+        CartCacheEntry entry = read(redisTemplate.opsForValue().get(shadowKey(userId)));
+        if (entry == null) {
+            return null;
+        }
+        staleServedCounter.increment();
+        return entry.getItems();
+    }
+
+    // Redis mode only; in SQL mode the version comes from the cart's summary row. Must be read before the cart itself so
+    // putIfCurrent can tell whether a write committed in between.
+    public long currentVersion(String userId) {
+        String version = redisTemplate.opsForValue().get(versionKey(userId));
+        return version != null ? Long.parseLong(version) : 0;
+    }
+
+    public void putIfCurrent(String userId, long version, List<CartItemResponse> items) {
+        String cartKey = cartKey(userId);
+        String versionKey = versionKey(userId);
+        String json = write(new CartCacheEntry(version, new ArrayList<>(items)));
+        if (json == null) {
+            return;
+        }
+
+        redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public List<Object> execute(RedisOperations operations) throws DataAccessException {
+                RedisOperations<String, String> ops = operations;
+                ops.watch(List.of(cartKey, versionKey));
+                // The key holds the newest version a committed write has published; a load under an older one may
+                // have read rows from before that write.
+                String current = ops.opsForValue().get(versionKey);
+                if ((current != null ? Long.parseLong(current) : 0) > version || ops.hasKey(cartKey)) {
+                    ops.unwatch();
+                    return null;
+                }
+                ops.multi();
+                ops.opsForValue().set(cartKey, json, Duration.ofMinutes(ttlMinutes));
+                ops.opsForValue().set(shadowKey(userId), json, Duration.ofHours(shadowTtlHours));
+                return ops.exec();
+            }
+        });
+    }
+
+    // version is the cart's summary version, taken by the write under its row lock, so it follows commit order even
+    // though these callbacks may not. It is published only once the write has committed.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(String userId, Long version, Collection<CartItemResponse> upserted,
+                             Collection<String> removedProductIds) {
+        List<CartItemResponse> lines = List.copyOf(upserted);
+        List<String> removed = List.copyOf(removedProductIds);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    if (version == null || redisCartStore.isEnabled()) {
+                        // In Redis mode the cart hash is the source of truth and has no summary version, so the
+                        // counter only fences off overlapping loads; the cached list and its shadow are dropped.
+                        bumpVersion(userId);
+                        evict(userId);
+                    } else if (advanceVersion(userId, version)) {
+                        writeThrough(userId, version, lines, removed);
+                    } else {
+                        evict(userId);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to update cached cart for user {}: {}", userId, e.getMessage());
+                }
+            }
+        });
+    }
+
+    public void evict(String userId) {
+        redisTemplate.delete(List.of(cartKey(userId), shadowKey(userId)));
+    }
+
+    void writeThrough(String userId, long version, List<CartItemResponse> upserted, List<String> removed) {
+        String cartKey = cartKey(userId);
+
+        for (int attempt = 0; attempt < MAX_CAS_ATTEMPTS; attempt++) {
+            CasOutcome outcome = redisTemplate.execute(new SessionCallback<CasOutcome>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public CasOutcome execute(RedisOperations operations) throws DataAccessException {
+                    RedisOperations<String, String> ops = operations;
+                    ops.watch(cartKey);
+                    CartCacheEntry entry = read(ops.opsForValue().get(cartKey));
+                    if (entry == null) {
+                        // Nothing cached: the next read loads the cart, and the shadow no longer matches it.
+                        ops.unwatch();
+                        ops.delete(shadowKey(userId));
+                        return CasOutcome.SKIPPED;
+                    }
+
+                    // Anything but the next version means a write in between has not reached the cache yet, or this
+                    // one arrived late; the entry is dropped rather than patched out of order.
+                    String json = entry.getVersion() == version - 1
+                            ? write(new CartCacheEntry(version, apply(entry.getItems(), upserted, removed)))
+                            : null;
+
+                    ops.multi();
+                    if (json != null) {
+                        ops.opsForValue().set(cartKey, json, Duration.ofMinutes(ttlMinutes));
+                        ops.opsForValue().set(shadowKey(userId), json, Duration.ofHours(shadowTtlHours));
+                    } else {
+                        ops.delete(List.of(cartKey, shadowKey(userId)));
+                    }
+                    List<Object> result = ops.exec();
+                    if (result == null || result.isEmpty()) {
+                        return CasOutcome.ABORTED;
+                    }
+                    return json != null ? CasOutcome.APPLIED : CasOutcome.DROPPED;
+                }
+            });
+
+            if (outcome == CasOutcome.APPLIED) {
+                writeThroughCounter.increment();
+                return;
+            }
+            if (outcome == CasOutcome.DROPPED) {
+                conflictCounter.increment();
+                return;
+            }
+            if (outcome == CasOutcome.SKIPPED) {
+                return;
+            }
+        }
+
+        conflictCounter.increment();
+        evict(userId);
+    }
+
+    private void bumpVersion(String userId) {
+        try {
+            redisTemplate.execute(BUMP_SCRIPT, List.of(versionKey(userId)), versionTtlMillis());
+        } catch (RuntimeException e) {
+            log.warn("Failed to bump cart cache version for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private boolean advanceVersion(String userId, long version) {
+        try {
+            redisTemplate.execute(ADVANCE_SCRIPT, List.of(versionKey(userId)), String.valueOf(version), versionTtlMillis());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish cart cache version for user {}: {}", userId, e.getMessage());
+            return false;
+        }
+    }
+
+    private String versionTtlMillis() {
+        return String.valueOf(Duration.ofMinutes(ttlMinutes * 2).toMillis());
+    }
+
+    static List<CartItemResponse> apply(List<CartItemResponse> items, Collection<CartItemResponse> upserted, Collection<String> removed) {
+        Map<String, CartItemResponse> lines = new LinkedHashMap<>();
+        items.forEach(item -> lines.put(item.getProductId(), item));
+        upserted.forEach(item -> lines.put(item.getProductId(), item));
+        removed.forEach(lines::remove);
+        return new ArrayList<>(lines.values());
+    }
+
+    private CartCacheEntry read(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, CartCacheEntry.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable cached cart entry, ignoring it: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private String write(CartCacheEntry entry) {
+        try {
+            return objectMapper.writeValueAsString(entry);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize cart cache entry", e);
+            return null;
+        }
+    }
+
+    private enum CasOutcome {
+        APPLIED, DROPPED, SKIPPED, ABORTED
+    }
+
+    private String cartKey(String userId) {
+        return CART_KEY_PREFIX + userId;
+    }
+
+    private String shadowKey(String userId) {
+        return SHADOW_KEY_PREFIX + userId;
+    }
+
+    private String versionKey(String userId) {
+        return VERSION_KEY_PREFIX + userId;
+    }
+}
@@ -0,0 +1,100 @@
+package com.nexgen.cart_service.service;
+
+import com.nexgen.cart_service.dto.CartItemDelta;
+import com.nexgen.cart_service.dto.CartItemsChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CartEventCoalescer {
+
+    private final CartEventProducerService cartEventProducer;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cart.events.coalesce.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.events.coalesce.window-ms:200}")
+    private long windowMs;
+
+    private final Map<String, Map<String, CartItemDelta>> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flushScheduler;
+    private Counter coalescedCounter;
+    private Counter emittedCounter;
+
+    @PostConstruct
+    public void init() {
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-event-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.coalescedCounter = meterRegistry.counter("cart.events.coalesced.count");
+        this.emittedCounter = meterRegistry.counter("cart.events.coalesced.emitted.count");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdownNow();
+        new ArrayList<>(pending.keySet()).forEach(this::flush);
+    }
+
+    public void submit(String userId, Object event, CartItemDelta change) {
+        if (!enabled || change == null) {
+            // Anything that is not a plain item change must not overtake the changes buffered before it.
+            flush(userId);
+            cartEventProducer.publish(event);
+            return;
+        }
+
+        coalescedCounter.increment();
+        pending.compute(userId, (id, changes) -> {
+            if (changes == null) {
+                changes = new LinkedHashMap<>();
+                flushScheduler.schedule(() -> flush(id), windowMs, TimeUnit.MILLISECONDS);
+            }
+
+            CartItemDelta delta = changes.computeIfAbsent(change.getProductId(), productId -> new CartItemDelta(productId, 0, 0));
+            delta.setQuantityDelta(delta.getQuantityDelta() + change.getQuantityDelta());
+            delta.setAmountDelta(delta.getAmountDelta() + change.getAmountDelta());
+            return changes;
+        });
+    }
+
+    void flush(String userId) {
+        Map<String, CartItemDelta> changes = pending.remove(userId);
+        if (changes == null) {
+            return;
+        }
+
+        List<CartItemDelta> netChanges = changes.values().stream()
+                .filter(delta -> delta.getQuantityDelta() != 0 || Math.abs(delta.getAmountDelta()) > 1e-9)
+                .toList();
+
+        if (netChanges.isEmpty()) {
+            log.debug("Coalesced cart changes for userId {} cancelled out", userId);
+            return;
+        }
+
+        emittedCounter.increment();
+        cartEventProducer.publish(new CartItemsChangedEvent(userId, new ArrayList<>(netChanges), "Cart updated"));
+    }
+}
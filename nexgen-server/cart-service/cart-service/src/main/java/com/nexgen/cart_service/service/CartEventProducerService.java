@@ -2,14 +2,27 @@ package com.nexgen.cart_service.service;
 
 import com.nexgen.cart_service.dto.AddToCartEvent;
 import com.nexgen.cart_service.dto.CartClearedEvent;
+import com.nexgen.cart_service.dto.CartItemsChangedEvent;
+import com.nexgen.cart_service.dto.CartMergedEvent;
+import com.nexgen.cart_service.dto.CartsExpiredEvent;
 import com.nexgen.cart_service.dto.CheckoutEvent;
 import com.nexgen.cart_service.dto.RemoveFromCartEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -17,6 +30,7 @@ public class CartEventProducerService {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final KafkaFallbackService fallbackService;
+    private final MeterRegistry meterRegistry;
     private static final String FALLBACK_ERROR = "Kafka send failed. Falling back to Redis: {}";
 
     @Value("${topic.cart-cleared}")
@@ -31,47 +45,207 @@ public class CartEventProducerService {
     @Value("${topic.cart-checkout}")
     private String cartCheckoutTopic;
 
-    public void sendCartClearedEvent(CartClearedEvent event) {
-        log.info("Publishing Cart Cleared event: {}", event);
+    @Value("${topic.cart-items-changed}")
+    private String cartItemsChangedTopic;
 
-        try {
-            kafkaTemplate.send(cartClearedTopic, event);
-        } catch (Exception ex) {
-            log.error(FALLBACK_ERROR, ex.getMessage());
-            fallbackService.enqueueFailedEvent(event);
+    @Value("${topic.cart-expired}")
+    private String cartExpiredTopic;
+
+    @Value("${topic.cart-merged}")
+    private String cartMergedTopic;
+
+    @Value("${cart.events.publisher.threads:2}")
+    private int publisherThreads;
+
+    @Value("${cart.events.publisher.buffer-capacity:10000}")
+    private int bufferCapacity;
+
+    @Value("${cart.events.publisher.fallback-capacity:10000}")
+    private int fallbackCapacity;
+
+    private final AtomicInteger inFlightSends = new AtomicInteger();
+
+    private ThreadPoolExecutor publishExecutor;
+    private ThreadPoolExecutor fallbackExecutor;
+    private Timer ackLatencyTimer;
+    private Counter sentCounter;
+    private Counter fallbackCounter;
+    private Counter droppedCounter;
+
+    @PostConstruct
+    public void init() {
+        this.publishExecutor = new ThreadPoolExecutor(publisherThreads, publisherThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(bufferCapacity), namedThreads("cart-kafka-publisher-"));
+        // Failure handling must not run on the Kafka producer I/O thread, so Redis writes get their own thread.
+        // Its queue is bounded: when Kafka and Redis are both down, events are dropped and counted instead of piling up.
+        this.fallbackExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fallbackCapacity), namedThreads("cart-kafka-fallback-"));
+
+        this.ackLatencyTimer = Timer.builder("cart.kafka.ack.latency")
+                .description("Time from handing an event to Kafka until the broker acknowledged it")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("cart.kafka.sent.count");
+        this.fallbackCounter = meterRegistry.counter("cart.kafka.fallback.count");
+        this.droppedCounter = meterRegistry.counter("cart.kafka.fallback.dropped");
+
+        Gauge.builder("cart.kafka.inflight", inFlightSends, AtomicInteger::get)
+                .description("Cart events sent to Kafka and not yet acknowledged")
+                .register(meterRegistry);
+        Gauge.builder("cart.kafka.buffer.size", publishExecutor, executor -> executor.getQueue().size())
+                .description("Cart events waiting in the in-memory publish buffer")
+                .register(meterRegistry);
+        Gauge.builder("cart.kafka.fallback.queue.size", fallbackExecutor, executor -> executor.getQueue().size())
+                .description("Failed cart events waiting to be written to the Redis fallback queue")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        publishExecutor.shutdown();
+        if (!publishExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Dropping {} unsent cart events on shutdown", publishExecutor.shutdownNow().size());
         }
+        fallbackExecutor.shutdown();
+        fallbackExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public void publish(Object event) {
+        if (event instanceof AddToCartEvent addToCartEvent) {
+            sendAddToCartEvent(addToCartEvent);
+        } else if (event instanceof RemoveFromCartEvent removeFromCartEvent) {
+            sendRemoveFromCartEvent(removeFromCartEvent);
+        } else if (event instanceof CartClearedEvent cartClearedEvent) {
+            sendCartClearedEvent(cartClearedEvent);
+        } else if (event instanceof CheckoutEvent checkoutEvent) {
+            sendCheckoutEvent(checkoutEvent);
+        } else if (event instanceof CartItemsChangedEvent cartItemsChangedEvent) {
+            sendCartItemsChangedEvent(cartItemsChangedEvent);
+        } else if (event instanceof CartsExpiredEvent cartsExpiredEvent) {
+            sendCartsExpiredEvent(cartsExpiredEvent);
+        } else if (event instanceof CartMergedEvent cartMergedEvent) {
+            sendCartMergedEvent(cartMergedEvent);
+        } else {
+            log.warn("Unknown cart event type: {}", event.getClass().getSimpleName());
+        }
+    }
 
+    public CompletableFuture<SendResult<String, Object>> sendDirect(Object event) {
+        return kafkaTemplate.send(topicFor(event), keyFor(event), event);
+    }
+
+    public void sendCartClearedEvent(CartClearedEvent event) {
+        log.info("Publishing Cart Cleared event: {}", event);
+        sendAsync(cartClearedTopic, event.getUserId(), event);
     }
 
     public void sendAddToCartEvent(AddToCartEvent event) {
         log.info("Publishing Add to Cart event: {}", event);
-        try {
-            kafkaTemplate.send(carAddedTopic, event);
-        } catch(Exception ex) {
-            log.error(FALLBACK_ERROR, ex.getMessage());
-            fallbackService.enqueueFailedEvent(event);
-        }
+        sendAsync(carAddedTopic, event.getUserId(), event);
     }
 
     public void sendRemoveFromCartEvent(RemoveFromCartEvent event) {
         log.info("Publishing Remove from Cart  event: {}", event);
+        sendAsync(cartRemovedTopic, event.getUserId(), event);
+    }
+
+    public void sendCheckoutEvent(CheckoutEvent event) {
+        log.info("Publishing Checkout event: {}", event);
+        sendAsync(cartCheckoutTopic, event.getUserId(), event);
+    }
+
+    public void sendCartItemsChangedEvent(CartItemsChangedEvent event) {
+        log.info("Publishing Cart Items Changed event: {}", event);
+        sendAsync(cartItemsChangedTopic, event.getUserId(), event);
+    }
 
+    public void sendCartsExpiredEvent(CartsExpiredEvent event) {
+        log.info("Publishing Carts Expired event for {} carts", event.getUserIds().size());
+        sendAsync(cartExpiredTopic, null, event);
+    }
+
+    public void sendCartMergedEvent(CartMergedEvent event) {
+        log.info("Publishing Cart Merged event: {}", event);
+        sendAsync(cartMergedTopic, event.getUserId(), event);
+    }
+
+    private void sendAsync(String topic, String key, Object event) {
         try {
-            kafkaTemplate.send(cartRemovedTopic, event);
-        } catch(Exception ex) {
-            log.error(FALLBACK_ERROR, ex.getMessage());
-            fallbackService.enqueueFailedEvent(event);
+            publishExecutor.execute(() -> send(topic, key, event));
+        } catch (RejectedExecutionException ex) {
+            log.warn("Kafka publish buffer is full, spilling event to Redis: {}", event);
+            fallback(event);
         }
     }
 
-    public void sendCheckoutEvent(CheckoutEvent event) {
-        log.info("Publishing Checkout event: {}", event);
+    private void send(String topic, String key, Object event) {
+        long start = System.nanoTime();
+        inFlightSends.incrementAndGet();
 
+        CompletableFuture<SendResult<String, Object>> future;
         try {
-            kafkaTemplate.send(cartCheckoutTopic, event);
+            future = kafkaTemplate.send(topic, key, event);
         } catch (Exception ex) {
+            inFlightSends.decrementAndGet();
             log.error(FALLBACK_ERROR, ex.getMessage());
-            fallbackService.enqueueFailedEvent(event);
+            fallbackAsync(event);
+            return;
         }
+
+        future.whenComplete((result, ex) -> {
+            inFlightSends.decrementAndGet();
+            ackLatencyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            if (ex != null) {
+                log.error(FALLBACK_ERROR, ex.getMessage());
+                fallbackAsync(event);
+            } else {
+                sentCounter.increment();
+            }
+        });
+    }
+
+    private String topicFor(Object event) {
+        if (event instanceof AddToCartEvent) return carAddedTopic;
+        if (event instanceof RemoveFromCartEvent) return cartRemovedTopic;
+        if (event instanceof CartClearedEvent) return cartClearedTopic;
+        if (event instanceof CheckoutEvent) return cartCheckoutTopic;
+        if (event instanceof CartItemsChangedEvent) return cartItemsChangedTopic;
+        if (event instanceof CartsExpiredEvent) return cartExpiredTopic;
+        if (event instanceof CartMergedEvent) return cartMergedTopic;
+        throw new IllegalArgumentException("No topic configured for event type " + event.getClass().getSimpleName());
+    }
+
+    private String keyFor(Object event) {
+        if (event instanceof AddToCartEvent e) return e.getUserId();
+        if (event instanceof RemoveFromCartEvent e) return e.getUserId();
+        if (event instanceof CartClearedEvent e) return e.getUserId();
+        if (event instanceof CheckoutEvent e) return e.getUserId();
+        if (event instanceof CartItemsChangedEvent e) return e.getUserId();
+        if (event instanceof CartMergedEvent e) return e.getUserId();
+        return null;
+    }
+
+    private void fallbackAsync(Object event) {
+        try {
+            fallbackExecutor.execute(() -> fallback(event));
+        } catch (RejectedExecutionException ex) {
+            droppedCounter.increment();
+            log.error("Kafka fallback queue is full, dropping cart event: {}", event);
+        }
+    }
+
+    private void fallback(Object event) {
+        fallbackCounter.increment();
+        fallbackService.enqueueFailedEvent(event);
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 }
@@ -0,0 +1,6 @@
+package com.nexgen.cart_service.service;
+
+import com.nexgen.cart_service.entity.CartItem;
+
+public record CartItemRemoval(CartItem remaining, double removedAmount) {
+}
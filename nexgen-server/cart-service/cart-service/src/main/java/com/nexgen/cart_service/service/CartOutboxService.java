@@ -0,0 +1,149 @@
+package com.nexgen.cart_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexgen.cart_service.dto.*;
+import com.nexgen.cart_service.entity.CartOutboxEvent;
+import com.nexgen.cart_service.repository.CartOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CartOutboxService {
+
+    private final CartOutboxRepository outboxRepository;
+    private final CartEventCoalescer cartEventCoalescer;
+    private final CartStreamService cartStreamService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${cart.events.delivery:outbox}")
+    private String delivery;
+
+    @Value("${topic.cart-cleared}")
+    private String cartClearedTopic;
+
+    @Value("${topic.cart-item-added}")
+    private String cartAddedTopic;
+
+    @Value("${topic.cart-item-removed}")
+    private String cartRemovedTopic;
+
+    @Value("${topic.cart-checkout}")
+    private String cartCheckoutTopic;
+
+    @Value("${topic.cart-items-changed}")
+    private String cartItemsChangedTopic;
+
+    @Value("${topic.cart-expired}")
+    private String cartExpiredTopic;
+
+    @Value("${topic.cart-merged}")
+    private String cartMergedTopic;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String userId, Object event) {
+        record(userId, event, null);
+    }
+
+    // change is the net effect of an item add or remove; direct delivery may merge it with the user's other recent changes.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String userId, Object event, CartItemDelta change) {
+        notifyAfterCommit(userId, event, change);
+
+        if (isDirect()) {
+            return;
+        }
+
+        try {
+            outboxRepository.save(CartOutboxEvent.builder()
+                    .topic(topicFor(event))
+                    .eventKey(userId)
+                    .eventType(event.getClass().getSimpleName())
+                    .payload(objectMapper.writeValueAsString(event))
+                    .createdAt(Instant.now())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize cart event for outbox: " + event, e);
+        }
+    }
+
+    // For Redis-store changes, whose outbox entry the cart script appended in the same step as the change.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAppended(String userId, Object event) {
+        recordAppended(userId, event, null);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAppended(String userId, Object event, CartItemDelta change) {
+        notifyAfterCommit(userId, event, change);
+    }
+
+    // Serialized entry a Redis cart script appends to the Redis outbox; null when events are delivered directly.
+    public String redisEntry(String userId, Object event) {
+        if (isDirect()) {
+            return null;
+        }
+
+        try {
+            return objectMapper.writeValueAsString(CartOutboxEntry.builder()
+                    .topic(topicFor(event))
+                    .eventKey(userId)
+                    .eventType(event.getClass().getSimpleName())
+                    .event(objectMapper.valueToTree(event))
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize cart event for outbox: " + event, e);
+        }
+    }
+
+    public CartOutboxEntry readRedisEntry(String entry) throws JsonProcessingException {
+        return objectMapper.readValue(entry, CartOutboxEntry.class);
+    }
+
+    public Object readEvent(CartOutboxEntry entry) throws JsonProcessingException {
+        return objectMapper.treeToValue(entry.getEvent(), CartEventTypes.resolve(entry.getEventType()));
+    }
+
+    public Object readPayload(CartOutboxEvent outboxEvent) throws JsonProcessingException {
+        return objectMapper.readValue(outboxEvent.getPayload(), CartEventTypes.resolve(outboxEvent.getEventType()));
+    }
+
+    private boolean isDirect() {
+        return !"outbox".equalsIgnoreCase(delivery);
+    }
+
+    private void notifyAfterCommit(String userId, Object event, CartItemDelta change) {
+        boolean direct = isDirect();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // SSE clients get every change as it commits, independent of how Kafka delivery is batched.
+                cartStreamService.publish(userId, event);
+                if (direct) {
+                    cartEventCoalescer.submit(userId, event, change);
+                }
+            }
+        });
+    }
+
+    private String topicFor(Object event) {
+        if (event instanceof AddToCartEvent) return cartAddedTopic;
+        if (event instanceof RemoveFromCartEvent) return cartRemovedTopic;
+        if (event instanceof CartClearedEvent) return cartClearedTopic;
+        if (event instanceof CheckoutEvent) return cartCheckoutTopic;
+        if (event instanceof CartItemsChangedEvent) return cartItemsChangedTopic;
+        if (event instanceof CartsExpiredEvent) return cartExpiredTopic;
+        if (event instanceof CartMergedEvent) return cartMergedTopic;
+        throw new IllegalArgumentException("No topic configured for event type " + event.getClass().getSimpleName());
+    }
+}
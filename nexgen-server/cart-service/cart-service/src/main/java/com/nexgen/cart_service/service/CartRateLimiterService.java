@@ -0,0 +1,148 @@
+package com.nexgen.cart_service.service;
+
+import com.nexgen.cart_service.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CartRateLimiterService {
+
+    private static final String BUCKET_KEY_PREFIX = "cart:ratelimit:";
+    private static final RedisScript<Long> TOKEN_BUCKET_SCRIPT = RedisScript.of(new ClassPathResource("scripts/rate-limit.lua"), Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cart.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cart.ratelimit.user.capacity:20}")
+    private int userCapacity;
+
+    @Value("${cart.ratelimit.user.refill-per-second:5}")
+    private double userRefillPerSecond;
+
+    @Value("${cart.ratelimit.ip.enabled:false}")
+    private boolean ipEnabled;
+
+    @Value("${cart.ratelimit.ip.capacity:200}")
+    private int ipCapacity;
+
+    @Value("${cart.ratelimit.ip.refill-per-second:50}")
+    private double ipRefillPerSecond;
+
+    @Value("${cart.ratelimit.lease-size:5}")
+    private int leaseSize;
+
+    @Value("${cart.ratelimit.lease-ttl-ms:1000}")
+    private long leaseTtlMs;
+
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private Counter failOpenCounter;
+
+    @PostConstruct
+    public void initCounters() {
+        this.failOpenCounter = meterRegistry.counter("cart.ratelimit.failopen.count");
+    }
+
+    public void checkLimit(String operation, String userId, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+
+        if (userId != null && !tryAcquire("user:" + userId, userCapacity, userRefillPerSecond)) {
+            reject(operation, "user");
+        }
+
+        if (ipEnabled && clientIp != null && !tryAcquire("ip:" + clientIp, ipCapacity, ipRefillPerSecond)) {
+            reject(operation, "ip");
+        }
+    }
+
+    boolean tryAcquire(String bucket, int capacity, double refillPerSecond) {
+        Lease lease = leases.get(bucket);
+        if (lease != null && lease.tryTake()) {
+            return true;
+        }
+
+        // Only lease a block of tokens while the bucket is more than half full, so users near their limit are always checked in Redis.
+        long granted;
+        try {
+            Long result = redisTemplate.execute(TOKEN_BUCKET_SCRIPT, List.of(BUCKET_KEY_PREFIX + bucket),
+                    String.valueOf(capacity), String.valueOf(refillPerSecond),
+                    String.valueOf(leaseSize), String.valueOf(capacity / 2));
+            granted = result != null ? result : 0;
+        } catch (RuntimeException ex) {
+            log.warn("Rate limit check failed for {}, allowing request: {}", bucket, ex.getMessage());
+            failOpenCounter.increment();
+            return true;
+        }
+
+        if (granted <= 0) {
+            return false;
+        }
+
+        if (granted > 1) {
+            leases.put(bucket, new Lease((int) granted - 1, System.currentTimeMillis() + leaseTtlMs));
+        } else {
+            leases.remove(bucket);
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${cart.ratelimit.lease-ttl-ms:1000}")
+    public void purgeExpiredLeases() {
+        long now = System.currentTimeMillis();
+        leases.values().removeIf(lease -> lease.isExpired(now));
+    }
+
+    private void reject(String operation, String scope) {
+        meterRegistry.counter("cart.ratelimit.rejected", "operation", operation, "scope", scope).increment();
+        throw new RateLimitExceededException("Too many cart requests, please retry later.");
+    }
+
+    private static final class Lease {
+
+        private final AtomicInteger remaining;
+        private final long expiresAt;
+
+        private Lease(int tokens, long expiresAt) {
+            this.remaining = new AtomicInteger(tokens);
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean tryTake() {
+            if (isExpired(System.currentTimeMillis())) {
+                return false;
+            }
+            int current;
+            do {
+                current = remaining.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!remaining.compareAndSet(current, current - 1));
+            return true;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.nexgen.cart_service.service;
+
+import com.nexgen.cart_service.config.CartRoutingDataSource;
+import com.nexgen.cart_service.dto.CartShardMoveResponse;
+import com.nexgen.cart_service.exception.InvalidShardMoveException;
+import com.nexgen.cart_service.exception.ShardMoveInProgressException;
+import com.nexgen.cart_service.util.ConsistentHashRing;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSourceUtils;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+// Online move of a user hash range to another shard:
+//   1. freeze the range and wait until every replica has either seen the freeze or stopped routing on stale routes,
+//      then for calls already routed to finish;
+//   2. copy the range's carts and summaries from every other shard to the target, batch by batch;
+//   3. flip the range's route to the target in one Redis script, which also unfreezes it;
+//   4. delete the copied rows from the shards they came from.
+// Each shard is read and written through its own pool and its own transaction manager, outside the routing datasource.
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "cart.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class CartReshardService {
+
+    private static final String MOVE_LOCK_KEY = "cart:shard:move-lock";
+
+    private final CartShardRouter cartShardRouter;
+    private final CartRoutingDataSource routingDataSource;
+    private final RedisLockService lockService;
+
+    @Value("${cart.sharding.move.drain-ms:5000}")
+    private long drainMs;
+
+    @Value("${cart.sharding.move.batch-size:200}")
+    private int batchSize;
+
+    @Value("${cart.sharding.move.lock-ttl-minutes:60}")
+    private long lockTtlMinutes;
+
+    private final Map<String, NamedParameterJdbcTemplate> jdbcTemplates = new HashMap<>();
+    private final Map<String, TransactionTemplate> transactionTemplates = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        routingDataSource.getShards().forEach((shard, dataSource) -> {
+            jdbcTemplates.put(shard, new NamedParameterJdbcTemplate(dataSource));
+            transactionTemplates.put(shard, new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        });
+    }
+
+    public CartShardMoveResponse moveRange(long startHash, long endHash, String targetShard) {
+        if (startHash >= endHash) {
+            throw new InvalidShardMoveException("Start hash must be lower than end hash.");
+        }
+        if (!jdbcTemplates.containsKey(targetShard)) {
+            throw new InvalidShardMoveException("Unknown target shard: " + targetShard);
+        }
+
+        String token = lockService.tryLock(MOVE_LOCK_KEY, Duration.ofMinutes(lockTtlMinutes));
+        if (token == null) {
+            throw new ShardMoveInProgressException("Another cart shard move is in progress.");
+        }
+
+        try {
+            cartShardRouter.refreshRoutes();
+
+            // Only an identical range can be moved again; partial overlaps would leave users split across two routes.
+            CartShardRoute previous = null;
+            for (CartShardRoute route : cartShardRouter.routes()) {
+                if (route.getStartHash() == startHash && route.getEndHash() == endHash) {
+                    previous = route;
+                } else if (route.overlaps(startHash, endHash)) {
+                    throw new InvalidShardMoveException("Range overlaps the route [" + route.getStartHash() + ", "
+                            + route.getEndHash() + ") on shard " + route.getShard());
+                }
+            }
+
+            if (previous != null && !previous.isFrozen() && previous.getShard().equals(targetShard)) {
+                // Already moved: only rows a failed cleanup left behind on other shards remain, and they are stale.
+                Map<String, List<String>> leftovers = new LinkedHashMap<>();
+                scanRange(startHash, endHash, targetShard, (shard, userIds) ->
+                        leftovers.computeIfAbsent(shard, key -> new ArrayList<>()).addAll(userIds));
+                leftovers.forEach(this::deleteMoved);
+                return response(startHash, endHash, targetShard, 0, 0);
+            }
+
+            Map<String, List<String>> movedUsers = new LinkedHashMap<>();
+            int rowsCopied;
+            try {
+                cartShardRouter.putRoute(new CartShardRoute(startHash, endHash, targetShard, true));
+                Thread.sleep(cartShardRouter.maxRouteStalenessMs() + drainMs);
+                rowsCopied = copyRange(startHash, endHash, targetShard, movedUsers);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                restore(previous, startHash, endHash);
+                throw new IllegalStateException("Cart shard move was interrupted", e);
+            } catch (RuntimeException e) {
+                restore(previous, startHash, endHash);
+                throw e;
+            }
+
+            cartShardRouter.putRoute(new CartShardRoute(startHash, endHash, targetShard, false));
+            // Replicas that have not seen the flip still see the freeze, so nothing reaches the old rows any more.
+            movedUsers.forEach(this::deleteMoved);
+
+            int usersMoved = movedUsers.values().stream().mapToInt(List::size).sum();
+            log.info("Moved {} carts ({} rows) in hash range [{}, {}) to shard {}", usersMoved, rowsCopied, startHash, endHash, targetShard);
+            return response(startHash, endHash, targetShard, usersMoved, rowsCopied);
+        } finally {
+            lockService.release(MOVE_LOCK_KEY, token);
+        }
+    }
+
+    private int copyRange(long startHash, long endHash, String targetShard, Map<String, List<String>> movedUsers) {
+        int[] rowsCopied = {0};
+        scanRange(startHash, endHash, targetShard, (sourceShard, userIds) -> {
+            rowsCopied[0] += copyUsers(jdbcTemplates.get(sourceShard), targetShard, userIds);
+            movedUsers.computeIfAbsent(sourceShard, shard -> new ArrayList<>()).addAll(userIds);
+        });
+        return rowsCopied[0];
+    }
+
+    // Hands each batch of in-range users found on a shard other than the target to the consumer.
+    private void scanRange(long startHash, long endHash, String targetShard, BiConsumer<String, List<String>> consumer) {
+        for (String sourceShard : cartShardRouter.shards()) {
+            if (sourceShard.equals(targetShard)) {
+                continue;
+            }
+
+            NamedParameterJdbcTemplate source = jdbcTemplates.get(sourceShard);
+            String cursor = "";
+            while (true) {
+                List<String> userIds = source.queryForList("""
+                        SELECT TOP (:limit) user_id FROM cart_items
+                        WHERE user_id > :afterUserId
+                        GROUP BY user_id
+                        ORDER BY user_id
+                        """, Map.of("limit", batchSize, "afterUserId", cursor), String.class);
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                cursor = userIds.get(userIds.size() - 1);
+
+                List<String> inRange = new ArrayList<>();
+                for (String userId : userIds) {
+                    long hash = ConsistentHashRing.hash(userId);
+                    if (hash >= startHash && hash < endHash) {
+                        inRange.add(userId);
+                    }
+                }
+
+                if (!inRange.isEmpty()) {
+                    consumer.accept(sourceShard, inRange);
+                }
+
+                if (userIds.size() < batchSize) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private int copyUsers(NamedParameterJdbcTemplate source, String targetShard, List<String> userIds) {
+        Map<String, Object> params = Map.of("userIds", userIds);
+        List<Map<String, Object>> items = source.queryForList(
+                "SELECT user_id, product_id, quantity, price, updated_at FROM cart_items WHERE user_id IN (:userIds)", params);
+        List<Map<String, Object>> summaries = source.queryForList(
+                "SELECT user_id, item_count, total_quantity, total_amount, version, updated_at FROM cart_summaries WHERE user_id IN (:userIds)", params);
+
+        NamedParameterJdbcTemplate target = jdbcTemplates.get(targetShard);
+        transactionTemplates.get(targetShard).executeWithoutResult(status -> {
+            // Rows left on the target by an earlier, failed move are replaced rather than added to.
+            target.update("DELETE FROM cart_items WHERE user_id IN (:userIds)", params);
+            target.update("DELETE FROM cart_summaries WHERE user_id IN (:userIds)", params);
+            target.batchUpdate("""
+                    INSERT INTO cart_items (user_id, product_id, quantity, price, updated_at)
+                    VALUES (:user_id, :product_id, :quantity, :price, :updated_at)
+                    """, SqlParameterSourceUtils.createBatch(items));
+            target.batchUpdate("""
+                    INSERT INTO cart_summaries (user_id, item_count, total_quantity, total_amount, version, updated_at)
+                    VALUES (:user_id, :item_count, :total_quantity, :total_amount, :version, :updated_at)
+                    """, SqlParameterSourceUtils.createBatch(summaries));
+        });
+        return items.size();
+    }
+
+    private void deleteMoved(String sourceShard, List<String> userIds) {
+        NamedParameterJdbcTemplate source = jdbcTemplates.get(sourceShard);
+        for (int from = 0; from < userIds.size(); from += batchSize) {
+            Map<String, Object> params = Map.of("userIds", userIds.subList(from, Math.min(from + batchSize, userIds.size())));
+            try {
+                transactionTemplates.get(sourceShard).executeWithoutResult(status -> {
+                    source.update("DELETE FROM cart_items WHERE user_id IN (:userIds)", params);
+                    source.update("DELETE FROM cart_summaries WHERE user_id IN (:userIds)", params);
+                });
+            } catch (RuntimeException e) {
+                // The rows are no longer routed to; repeating the same move only cleans them up.
+                log.warn("Failed to delete moved carts from shard {}: {}", sourceShard, e.getMessage());
+            }
+        }
+    }
+
+    private CartShardMoveResponse response(long startHash, long endHash, String targetShard, int usersMoved, int rowsCopied) {
+        return CartShardMoveResponse.builder()
+                .startHash(startHash)
+                .endHash(endHash)
+                .targetShard(targetShard)
+                .usersMoved(usersMoved)
+                .rowsCopied(rowsCopied)
+                .build();
+    }
+
+    private void restore(CartShardRoute previous, long startHash, long endHash) {
+        if (previous != null) {
+            cartShardRouter.putRoute(previous);
+        } else {
+            cartShardRouter.dropRoute(startHash, endHash);
+        }
+    }
+}
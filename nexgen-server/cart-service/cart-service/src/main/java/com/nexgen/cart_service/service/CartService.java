@@ -7,10 +7,13 @@ import java.util.List;
 
 public interface CartService {
 
-    List<CartItemResponse> getCartByUser(String userId);
+    CartView getCartByUser(String userId);
     CartItemResponse addItemToCart(String userId, CartItemRequest item);
     CartItemResponse removeItemQuantity(String userId, String productId, int quantity);
     void clearCart(String userId);
     CheckoutResponse checkout(CheckoutRequest request);
+    CartBatchResponse applyBatch(String userId, CartBatchRequest request);
+    CartSummaryResponse getSummary(String userId);
+    List<CartItemResponse> mergeGuestCart(String userId, String guestId, CartMergePolicy policy);
     List<CartItem> getItemsByUserId(String userId);
 }
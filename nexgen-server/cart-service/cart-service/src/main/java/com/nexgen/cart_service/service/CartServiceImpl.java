@@ -4,10 +4,15 @@ import com.nexgen.cart_service.dto.*;
 import com.nexgen.cart_service.entity.CartItem;
 import com.nexgen.cart_service.exception.CartEmptyException;
 import com.nexgen.cart_service.exception.CartItemNotFoundException;
+import com.nexgen.cart_service.exception.CartUnavailableException;
+import com.nexgen.cart_service.exception.CheckoutInProgressException;
+import com.nexgen.cart_service.exception.InvalidCartMergeException;
 import com.nexgen.cart_service.exception.InvalidQuantityException;
 import com.nexgen.cart_service.repository.CartItemRepository;
+import com.nexgen.cart_service.util.CartRateLimited;
+import com.nexgen.cart_service.util.CartShardContext;
+import com.nexgen.cart_service.util.CartSharded;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.github.resilience4j.retry.annotation.Retry;
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.Counter;
@@ -15,12 +20,17 @@ import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,15 +39,29 @@ import java.util.stream.Collectors;
 @Transactional
 public class CartServiceImpl implements CartService {
 
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+
     private final CartItemRepository cartRepository;
-    private final CartEventProducerService cartEventProducer;
+    private final CartOutboxService cartOutboxService;
     private final MeterRegistry meterRegistry;
+    private final RedisCartStore redisCartStore;
+    private final CheckoutIdempotencyService checkoutIdempotencyService;
+    private final CartSummaryService cartSummaryService;
+    private final CartCacheService cartCacheService;
+    private final CartShadowRefresher cartShadowRefresher;
+    private final CartShardRouter cartShardRouter;
+    private final GuestCartTombstoneService guestCartTombstoneService;
 
     private Counter getCartItemCounter;
     private Counter addToCartCounter;
     private Counter removeFromCartCounter;
     private Counter clearCartCounter;
     private Counter checkoutCounter;
+    private Counter batchCounter;
+    private Counter mergeCounter;
+
+    @Value("${cart.merge.conflict-policy:SUM}")
+    private CartMergePolicy defaultMergePolicy;
 
     @PostConstruct
     public void initCounters() {
@@ -46,58 +70,72 @@ public class CartServiceImpl implements CartService {
         this.removeFromCartCounter = meterRegistry.counter("cart.remove.count");
         this.clearCartCounter = meterRegistry.counter("cart.clear.count");
         this.checkoutCounter = meterRegistry.counter("cart.checkout.count");
+        this.batchCounter = meterRegistry.counter("cart.batch.count");
+        this.mergeCounter = meterRegistry.counter("cart.merge.count");
     }
 
-    @Cacheable(value = "cart", key = "#userId")
     @CircuitBreaker(name = "cartServiceCircuitBreaker", fallbackMethod = "fallbackGetCart")
-    @RateLimiter(name = "cartServiceRateLimiter")
-    @Retry(name = "cartServiceRetry", fallbackMethod = "fallbackForGetCart")
+    @CartRateLimited(operation = "get", key = "#userId")
+    @CartSharded(key = "#userId")
+    @Retry(name = "cartServiceRetry", fallbackMethod = "fallbackGetCart")
     @Timed(value = "cart.get.by.user", description = "Time taken to get cart by user")
     @Override
-    public List<CartItemResponse> getCartByUser(String userId) {
+    public CartView getCartByUser(String userId) {
         getCartItemCounter.increment();
 
-        return cartRepository.findByUserId(userId)
+        List<CartItemResponse> cached = cartCacheService.get(userId);
+        if (cached != null) {
+            return new CartView(cached, false);
+        }
+
+        return new CartView(loadCart(userId), false);
+    }
+
+    private List<CartItemResponse> loadCart(String userId) {
+        long version = redisCartStore.isEnabled()
+                ? cartCacheService.currentVersion(userId)
+                : cartSummaryService.currentVersion(userId);
+        List<CartItemResponse> items = getItemsByUserId(userId)
                 .stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
+        cartCacheService.putIfCurrent(userId, version, items);
+        return items;
     }
 
-    @CacheEvict(value = "cart", key = "#userId")
     @CircuitBreaker(name = "cartServiceCircuitBreaker", fallbackMethod = "fallbackAddItem")
-    @RateLimiter(name = "cartServiceRateLimiter")
+    @CartRateLimited(operation = "add", key = "#userId")
+    @CartSharded(key = "#userId")
     @Retry(name = "cartServiceRetry", fallbackMethod = "fallbackAddItem")
     @Timed(value = "cart.add.item", description = "Time taken to add item to cart")
     @Override
     public CartItemResponse addItemToCart(String userId, CartItemRequest itemRequest) {
         addToCartCounter.increment();
 
-        CartItem item;
-
         if (itemRequest.getQuantity() <= 0) {
             throw new InvalidQuantityException("Quantity to add must be greater than 0.");
         }
 
-        if (cartRepository.existsByUserIdAndProductId(userId, itemRequest.getProductId())) {
-            item = cartRepository.findByUserIdAndProductId(userId, itemRequest.getProductId());
-            item.setQuantity(item.getQuantity() + itemRequest.getQuantity());
-            item.setPrice(item.getPrice() + (itemRequest.getPrice() * itemRequest.getQuantity()));
-        } else {
-            item = CartItem.builder()
-                    .userId(userId)
-                    .productId(itemRequest.getProductId())
-                    .quantity(itemRequest.getQuantity())
-                    .price(itemRequest.getPrice() * itemRequest.getQuantity())
-                    .build();
-        }
+        double amount = itemRequest.getPrice() * itemRequest.getQuantity();
+
+        CartItem saved = redisCartStore.isEnabled()
+                ? redisCartStore.addItem(userId, itemRequest.getProductId(), itemRequest.getQuantity(), amount,
+                        new AddToCartEvent(userId, itemRequest.getProductId(), 0, 0))
+                : cartRepository.upsertItem(userId, itemRequest.getProductId(), itemRequest.getQuantity(), amount);
+
+        Long version = cartSummaryService.applyChange(userId, saved.getQuantity() == itemRequest.getQuantity() ? 1 : 0,
+                itemRequest.getQuantity(), amount);
+        cartCacheService.recordChange(userId, version, List.of(mapToResponse(saved)), List.of());
 
-        CartItem saved = cartRepository.save(item);
+        recordEvent(userId,
+                new AddToCartEvent(userId, saved.getProductId(), saved.getQuantity(), saved.getPrice()),
+                new CartItemDelta(itemRequest.getProductId(), itemRequest.getQuantity(), amount));
 
         return mapToResponse(saved);
     }
 
-    @CacheEvict(value = "cart", key = "#userId")
-    @RateLimiter(name = "cartServiceRateLimiter")
+    @CartRateLimited(operation = "remove", key = "#userId")
+    @CartSharded(key = "#userId")
     @Retry(name = "cartServiceRetry", fallbackMethod = "fallbackRemoveItem")
     @Timed(value = "cart.remove.item", description = "Time taken to remove item from cart")
     @Override
@@ -108,6 +146,25 @@ public class CartServiceImpl implements CartService {
             throw new InvalidQuantityException("Quantity to remove must be greater than 0.");
         }
 
+        RemoveFromCartEvent event = new RemoveFromCartEvent(userId, productId, quantity, "Item removed from cart");
+        CartItemRemoval removal = redisCartStore.isEnabled()
+                ? redisCartStore.removeItem(userId, productId, quantity, event)
+                : removeFromDatabase(userId, productId, quantity);
+
+        Long version = cartSummaryService.applyChange(userId, removal.remaining().getQuantity() == 0 ? -1 : 0,
+                -quantity, -removal.removedAmount());
+        if (removal.remaining().getQuantity() > 0) {
+            cartCacheService.recordChange(userId, version, List.of(mapToResponse(removal.remaining())), List.of());
+        } else {
+            cartCacheService.recordChange(userId, version, List.of(), List.of(productId));
+        }
+
+        recordEvent(userId, event, new CartItemDelta(productId, -quantity, -removal.removedAmount()));
+
+        return mapToResponse(removal.remaining());
+    }
+
+    private CartItemRemoval removeFromDatabase(String userId, String productId, int quantity) {
         CartItem item = cartRepository.findByUserIdAndProductId(userId, productId);
 
         if (item == null) {
@@ -121,50 +178,72 @@ public class CartServiceImpl implements CartService {
         int updatedQuantity = item.getQuantity() - quantity;
         double updatedPrice = item.getPrice() - (quantity * (item.getPrice() / item.getQuantity()));
 
+        double removedAmount = item.getPrice() - updatedPrice;
+
         if (updatedQuantity > 0) {
             item.setQuantity(updatedQuantity);
             item.setPrice(updatedPrice);
             CartItem updated = cartRepository.save(item);
-            return mapToResponse(updated);
+            return new CartItemRemoval(updated, removedAmount);
         } else {
             cartRepository.delete(item);
-            return CartItemResponse.builder()
+            return new CartItemRemoval(CartItem.builder()
                     .userId(userId)
                     .productId(productId)
                     .quantity(0)
                     .price(updatedPrice)
-                    .build();
+                    .build(), removedAmount);
         }
     }
 
-    @CacheEvict(value = "cart", key = "#userId")
     @CircuitBreaker(name = "cartServiceCircuitBreaker", fallbackMethod = "fallbackClearCart")
-    @RateLimiter(name = "cartServiceRateLimiter")
+    @CartRateLimited(operation = "clear", key = "#userId")
+    @CartSharded(key = "#userId")
     @Retry(name = "cartServiceRetry", fallbackMethod = "fallbackClearCart")
     @Timed(value = "cart.clear", description = "Time taken to clear cart")
     @Override
     public void clearCart(String userId) {
         clearCartCounter.increment();
 
-        List<CartItem> items = cartRepository.findByUserId(userId);
+        String message = "Cart cleared successfully.";
+        List<CartItem> items = removeAllItems(userId, new CartClearedEvent(userId, 0, message, null));
 
         if (items.isEmpty()) {
             throw new CartEmptyException("Cart is already empty for userId: " + userId);
         }
 
-        cartRepository.deleteByUserId(userId);
+        int totalQuantity = items.stream().mapToInt(CartItem::getQuantity).sum();
+        recordEvent(userId, new CartClearedEvent(userId, totalQuantity, message, toLineItems(items)));
     }
 
-    @CacheEvict(value = "cart", key = "#request.userId")
     @CircuitBreaker(name = "cartServiceCircuitBreaker", fallbackMethod = "fallbackCheckout")
-    @RateLimiter(name = "cartServiceRateLimiter")
+    @CartRateLimited(operation = "checkout", key = "#request.userId")
+    @CartSharded(key = "#request.userId")
     @Retry(name = "cartServiceRetry", fallbackMethod = "fallbackCheckout")
     @Timed(value = "cart.checkout", description = "Time taken to checkout cart")
     @Override
     public CheckoutResponse checkout(CheckoutRequest request) {
         checkoutCounter.increment();
 
-        List<CartItem> items = cartRepository.findByUserId(request.getUserId());
+        String idempotencyKey = request.getIdempotencyKey();
+        if (idempotencyKey != null) {
+            CheckoutResponse previous = checkoutIdempotencyService.findCompleted(request.getUserId(), idempotencyKey);
+            if (previous != null) {
+                return previous;
+            }
+
+            checkoutIdempotencyService.begin(request.getUserId(), idempotencyKey);
+
+            // The request we raced with may have finished between the lookup and taking the lock.
+            previous = checkoutIdempotencyService.findCompleted(request.getUserId(), idempotencyKey);
+            if (previous != null) {
+                return previous;
+            }
+        }
+
+        String message = "Checkout completed";
+        List<CartItem> items = removeAllItems(request.getUserId(),
+                new CheckoutEvent(request.getUserId(), null, 0, message, null));
 
         if (items.isEmpty()) {
             throw new CartEmptyException("Cannot checkout an empty cart");
@@ -178,8 +257,6 @@ public class CartServiceImpl implements CartService {
                 .map(CartItem::getProductId)
                 .collect(Collectors.toList());
 
-        cartRepository.deleteAll(items);
-
         CheckoutResponse response = CheckoutResponse.builder()
                 .userId(request.getUserId())
                 .paymentStatus("SUCCESS") // Simulated for now
@@ -187,9 +264,330 @@ public class CartServiceImpl implements CartService {
                 .purchasedProductIds(purchasedProductIds)
                 .build();
 
+        recordEvent(request.getUserId(),
+                new CheckoutEvent(request.getUserId(), purchasedProductIds, totalAmount, message, toLineItems(items)));
+
+        if (idempotencyKey != null) {
+            checkoutIdempotencyService.complete(request.getUserId(), idempotencyKey, response);
+        }
+
         return response;
     }
 
+    @CircuitBreaker(name = "cartServiceCircuitBreaker")
+    @CartRateLimited(operation = "batch", key = "#userId")
+    @CartSharded(key = "#userId")
+    @Retry(name = "cartServiceRetry")
+    @Timed(value = "cart.batch", description = "Time taken to apply a batch of cart operations")
+    @Override
+    public CartBatchResponse applyBatch(String userId, CartBatchRequest request) {
+        batchCounter.increment();
+
+        if (redisCartStore.isEnabled()) {
+            return applyBatchToRedis(userId, request);
+        }
+
+        Map<String, CartItemDelta> changes = new LinkedHashMap<>();
+        Map<String, CartItem> lines = new LinkedHashMap<>();
+
+        cartRepository.findByUserId(userId).forEach(item -> lines.put(item.getProductId(), item));
+        int previousItemCount = lines.size();
+
+        for (CartBatchOperation operation : request.getOperations()) {
+            CartItem line = lines.get(operation.getProductId());
+            int previousQuantity = line != null ? line.getQuantity() : 0;
+            double previousAmount = line != null ? line.getPrice() : 0;
+
+            line = applyToLine(userId, line, operation);
+            lines.put(operation.getProductId(), line);
+
+            recordChange(changes, operation.getProductId(),
+                    line.getQuantity() - previousQuantity, line.getPrice() - previousAmount);
+        }
+
+        List<CartItem> removed = new ArrayList<>();
+        List<CartItem> remaining = new ArrayList<>();
+        for (CartItem line : lines.values()) {
+            if (line.getQuantity() > 0) {
+                remaining.add(line);
+            } else if (line.getId() != null) {
+                removed.add(line);
+            }
+        }
+
+        cartRepository.deleteAllInBatch(removed);
+        List<CartItem> saved = cartRepository.saveAll(remaining);
+
+        Long version = cartSummaryService.applyChange(userId, remaining.size() - previousItemCount,
+                changes.values().stream().mapToInt(CartItemDelta::getQuantityDelta).sum(),
+                changes.values().stream().mapToDouble(CartItemDelta::getAmountDelta).sum());
+
+        return recordBatch(userId, version, saved, changes);
+    }
+
+    @CircuitBreaker(name = "cartServiceCircuitBreaker")
+    @CartRateLimited(operation = "merge", key = "#userId")
+    @CartSharded(key = "#userId")
+    @Retry(name = "cartServiceRetry")
+    @Timed(value = "cart.merge", description = "Time taken to merge a guest cart into a user cart")
+    @Override
+    public List<CartItemResponse> mergeGuestCart(String userId, String guestId, CartMergePolicy policy) {
+        mergeCounter.increment();
+
+        if (userId.equals(guestId)) {
+            throw new InvalidCartMergeException("Cannot merge a cart into itself.");
+        }
+
+        CartMergePolicy mergePolicy = policy != null ? policy : defaultMergePolicy;
+        List<CartItem> merged;
+        List<CartItem> items;
+        Long version = null;
+
+        if (redisCartStore.isEnabled()) {
+            merged = redisCartStore.mergeCarts(userId, guestId, mergePolicy,
+                    new CartMergedEvent(userId, guestId, mergePolicy, null, "Guest cart merged"));
+            items = redisCartStore.getItems(userId);
+            cartCacheService.recordChange(guestId, null, List.of(), List.of());
+        } else {
+            String guestShard = cartShardRouter.shardFor(guestId);
+            boolean crossShard = !Objects.equals(guestShard, cartShardRouter.shardFor(userId));
+            // A tombstoned guest cart was already merged; only its leftover rows on the guest shard still need dropping.
+            if (crossShard && !guestCartTombstoneService.isMerged(guestId)) {
+                stageGuestItems(guestShard, guestId);
+            }
+
+            merged = cartRepository.mergeGuestItems(userId, guestId, mergePolicy.name());
+            List<CartItem> guestItems = cartRepository.deleteAllByUserIdReturning(guestId);
+            version = cartSummaryService.rebuild(userId);
+            items = cartRepository.findByUserId(userId);
+
+            if (crossShard) {
+                // The guest's header and cached cart belong to its own shard and move only once its rows are gone.
+                deleteGuestCartAfterCommit(guestShard, guestId, userId);
+            } else {
+                cartCacheService.recordChange(guestId, cartSummaryService.rebuild(guestId), List.of(), productIds(guestItems));
+            }
+        }
+
+        // Redis mode drops both cached lists regardless of the lines passed here.
+        cartCacheService.recordChange(userId, version, merged.stream().map(this::mapToResponse).collect(Collectors.toList()), List.of());
+
+        if (!merged.isEmpty()) {
+            recordEvent(userId,
+                    new CartMergedEvent(userId, guestId, mergePolicy, toLineItems(merged), "Guest cart merged"));
+        }
+
+        return items.stream().map(this::mapToResponse).collect(Collectors.toList());
+    }
+
+    // The guest cart lives on another shard: its lines are copied next to the user's cart so the merge still runs as
+    // one statement in the user's transaction.
+    private void stageGuestItems(String guestShard, String guestId) {
+        List<CartItem> guestLines = cartShardRouter.inShard(guestShard, () -> cartRepository.findByUserId(guestId));
+        cartRepository.saveAll(guestLines.stream()
+                .map(line -> CartItem.builder()
+                        .userId(guestId)
+                        .productId(line.getProductId())
+                        .quantity(line.getQuantity())
+                        .price(line.getPrice())
+                        .build())
+                .collect(Collectors.toList()));
+    }
+
+    // Only once the merge has committed is the guest cart dropped from its own shard. The tombstone goes first, so if
+    // the delete fails a repeated merge retries it instead of adding the guest rows a second time.
+    private void deleteGuestCartAfterCommit(String guestShard, String guestId, String userId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    guestCartTombstoneService.mark(guestId, userId);
+                } catch (RuntimeException e) {
+                    log.warn("Could not tombstone merged guest cart {}: {}", guestId, e.getMessage());
+                }
+                try {
+                    cartShardRouter.inShard(guestShard, () -> {
+                        List<CartItem> removed = cartRepository.deleteAllByUserIdReturning(guestId);
+                        cartCacheService.recordChange(guestId, cartSummaryService.rebuild(guestId), List.of(), productIds(removed));
+                        return removed;
+                    });
+                    guestCartTombstoneService.clear(guestId);
+                } catch (RuntimeException e) {
+                    log.error("Merged guest cart {} could not be removed from shard {}", guestId, guestShard, e);
+                }
+            }
+        });
+    }
+
+    // event only serves Redis mode, where the drain script appends it with the drained lines filled in.
+    private List<CartItem> removeAllItems(String userId, Object event) {
+        List<CartItem> removed = redisCartStore.isEnabled()
+                ? redisCartStore.drain(userId, event)
+                : cartRepository.deleteAllByUserIdReturning(userId);
+
+        cartCacheService.recordChange(userId, cartSummaryService.rebuild(userId), List.of(), productIds(removed));
+        return removed;
+    }
+
+    private List<String> productIds(List<CartItem> items) {
+        return items.stream().map(CartItem::getProductId).collect(Collectors.toList());
+    }
+
+    private List<CartLineItem> toLineItems(List<CartItem> items) {
+        return items.stream()
+                .map(item -> new CartLineItem(item.getProductId(), item.getQuantity(), item.getPrice()))
+                .collect(Collectors.toList());
+    }
+
+    private CartItem applyToLine(String userId, CartItem line, CartBatchOperation operation) {
+        if (line == null) {
+            if (operation.getType() == CartOperationType.REMOVE) {
+                throw new CartItemNotFoundException("Cart item not found for userId: " + userId + " and productId: " + operation.getProductId());
+            }
+            line = CartItem.builder().userId(userId).productId(operation.getProductId()).build();
+        }
+
+        switch (operation.getType()) {
+            case ADD -> {
+                if (operation.getQuantity() <= 0) {
+                    throw new InvalidQuantityException("Quantity to add must be greater than 0.");
+                }
+                if (operation.getPrice() == null) {
+                    throw new InvalidQuantityException("Price is required to add product " + operation.getProductId());
+                }
+                line.setQuantity(line.getQuantity() + operation.getQuantity());
+                line.setPrice(line.getPrice() + operation.getPrice() * operation.getQuantity());
+            }
+            case SET -> {
+                double unitPrice;
+                if (operation.getPrice() != null) {
+                    unitPrice = operation.getPrice();
+                } else if (line.getQuantity() > 0) {
+                    unitPrice = line.getPrice() / line.getQuantity();
+                } else {
+                    throw new InvalidQuantityException("Price is required to set product " + operation.getProductId());
+                }
+                line.setQuantity(operation.getQuantity());
+                line.setPrice(unitPrice * operation.getQuantity());
+            }
+            case REMOVE -> {
+                if (operation.getQuantity() <= 0) {
+                    throw new InvalidQuantityException("Quantity to remove must be greater than 0.");
+                }
+                if (line.getQuantity() < operation.getQuantity()) {
+                    throw new InvalidQuantityException("Reduce amount is greater than quantity in cart.");
+                }
+                double unitPrice = line.getPrice() / line.getQuantity();
+                line.setQuantity(line.getQuantity() - operation.getQuantity());
+                line.setPrice(line.getPrice() - unitPrice * operation.getQuantity());
+            }
+        }
+
+        return line;
+    }
+
+    // The whole batch is validated against a snapshot of the hash and written by one script that only applies
+    // if no touched line changed meanwhile, so a failing operation never leaves earlier ones applied.
+    private CartBatchResponse applyBatchToRedis(String userId, CartBatchRequest request) {
+        for (int attempt = 1; attempt <= MAX_BATCH_ATTEMPTS; attempt++) {
+            Map<String, CartItem> current = new LinkedHashMap<>();
+            Map<String, CartItem> lines = new LinkedHashMap<>();
+            for (CartItem item : redisCartStore.getItems(userId)) {
+                current.put(item.getProductId(), item);
+                lines.put(item.getProductId(), copyOf(item));
+            }
+
+            Map<String, CartItemDelta> changes = new LinkedHashMap<>();
+            Map<String, CartItem> touched = new LinkedHashMap<>();
+            for (CartBatchOperation operation : request.getOperations()) {
+                CartItem line = lines.get(operation.getProductId());
+                int previousQuantity = line != null ? line.getQuantity() : 0;
+                double previousAmount = line != null ? line.getPrice() : 0;
+
+                line = applyToLine(userId, line, operation);
+                lines.put(operation.getProductId(), line);
+                touched.put(operation.getProductId(), line);
+
+                recordChange(changes, operation.getProductId(),
+                        line.getQuantity() - previousQuantity, line.getPrice() - previousAmount);
+            }
+
+            List<CartItemDelta> netChanges = netChanges(changes);
+            CartItemsChangedEvent event = netChanges.isEmpty()
+                    ? null
+                    : new CartItemsChangedEvent(userId, netChanges, "Cart updated in batch");
+
+            if (redisCartStore.applyBatch(userId, current, touched.values(), event)) {
+                List<CartItem> remaining = lines.values().stream()
+                        .filter(item -> item.getQuantity() > 0)
+                        .collect(Collectors.toList());
+                return recordBatch(userId, null, remaining, changes);
+            }
+        }
+
+        throw new CartUnavailableException("Cart for userId " + userId + " kept changing while the batch was applied; please retry.");
+    }
+
+    private List<CartItemDelta> netChanges(Map<String, CartItemDelta> changes) {
+        return changes.values().stream()
+                .filter(delta -> delta.getQuantityDelta() != 0 || delta.getAmountDelta() != 0)
+                .collect(Collectors.toList());
+    }
+
+    // In Redis mode the cart script already appended the event to the Redis outbox along with the change.
+    private void recordEvent(String userId, Object event) {
+        if (redisCartStore.isEnabled()) {
+            cartOutboxService.recordAppended(userId, event);
+        } else {
+            cartOutboxService.record(userId, event);
+        }
+    }
+
+    private void recordEvent(String userId, Object event, CartItemDelta change) {
+        if (redisCartStore.isEnabled()) {
+            cartOutboxService.recordAppended(userId, event, change);
+        } else {
+            cartOutboxService.record(userId, event, change);
+        }
+    }
+
+    private CartItem copyOf(CartItem item) {
+        return CartItem.builder()
+                .userId(item.getUserId())
+                .productId(item.getProductId())
+                .quantity(item.getQuantity())
+                .price(item.getPrice())
+                .build();
+    }
+
+    private void recordChange(Map<String, CartItemDelta> changes, String productId, int quantityDelta, double amountDelta) {
+        CartItemDelta delta = changes.computeIfAbsent(productId, id -> new CartItemDelta(id, 0, 0));
+        delta.setQuantityDelta(delta.getQuantityDelta() + quantityDelta);
+        delta.setAmountDelta(delta.getAmountDelta() + amountDelta);
+    }
+
+    private CartBatchResponse recordBatch(String userId, Long version, List<CartItem> items, Map<String, CartItemDelta> changes) {
+        List<CartItemDelta> netChanges = netChanges(changes);
+
+        if (!netChanges.isEmpty()) {
+            List<CartItemResponse> changedLines = items.stream()
+                    .filter(item -> changes.containsKey(item.getProductId()))
+                    .map(this::mapToResponse)
+                    .collect(Collectors.toList());
+            List<String> removedProductIds = changes.keySet().stream()
+                    .filter(productId -> items.stream().noneMatch(item -> item.getProductId().equals(productId)))
+                    .collect(Collectors.toList());
+            cartCacheService.recordChange(userId, version, changedLines, removedProductIds);
+
+            recordEvent(userId, new CartItemsChangedEvent(userId, netChanges, "Cart updated in batch"));
+        }
+
+        return CartBatchResponse.builder()
+                .items(items.stream().map(this::mapToResponse).collect(Collectors.toList()))
+                .changes(netChanges)
+                .build();
+    }
+
     private CartItemResponse mapToResponse(CartItem item) {
         return CartItemResponse.builder()
                 .userId(item.getUserId())
@@ -199,8 +597,17 @@ public class CartServiceImpl implements CartService {
                 .build();
     }
 
-    public List<CartItemResponse> fallbackGetCart(String userId, Throwable t) {
-        return List.of();
+    // Reached when the breaker is open (including when too many reads are slow) or the load failed.
+    public CartView fallbackGetCart(String userId, Throwable t) {
+        List<CartItemResponse> shadow = cartCacheService.getShadow(userId);
+        if (shadow == null) {
+            // An empty cart would send customers re-adding everything; failing the read is the honest answer.
+            throw new CartUnavailableException("Cart is temporarily unavailable, please retry shortly.");
+        }
+
+        // The refresh runs on the refresher's thread, outside the call that routed this one.
+        cartShadowRefresher.scheduleRefresh(userId, () -> CartShardContext.call(cartShardRouter.shardFor(userId), () -> loadCart(userId)));
+        return new CartView(shadow, true);
     }
 
     public CartItemResponse fallbackAddItem(String userId, CartItemRequest request, Throwable t) {
@@ -226,6 +633,9 @@ public class CartServiceImpl implements CartService {
     }
 
     public CheckoutResponse fallbackCheckout(CheckoutRequest request, Throwable t) {
+        if (t instanceof CheckoutInProgressException inProgress) {
+            throw inProgress;
+        }
         return CheckoutResponse.builder()
                 .userId(request.getUserId())
                 .paymentStatus("FAILED")
@@ -234,7 +644,17 @@ public class CartServiceImpl implements CartService {
                 .build();
     }
 
+    @CartSharded(key = "#userId")
+    @Override
+    public CartSummaryResponse getSummary(String userId) {
+        return cartSummaryService.getSummary(userId);
+    }
+
+    @CartSharded(key = "#userId")
     public List<CartItem> getItemsByUserId(String userId) {
+        if (redisCartStore.isEnabled()) {
+            return redisCartStore.getItems(userId);
+        }
         return cartRepository.findByUserId(userId);
     }
 }
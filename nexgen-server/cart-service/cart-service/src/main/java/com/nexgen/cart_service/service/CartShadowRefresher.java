@@ -0,0 +1,93 @@
+package com.nexgen.cart_service.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Reloads carts that were served stale once the database is reachable again, one task per user at a time.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CartShadowRefresher {
+
+    private static final String CIRCUIT_BREAKER = "cartServiceCircuitBreaker";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cart.cache.refresh.interval-ms:5000}")
+    private long intervalMs;
+
+    @Value("${cart.cache.refresh.max-attempts:60}")
+    private int maxAttempts;
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService refreshScheduler;
+    private Counter refreshedCounter;
+
+    @PostConstruct
+    public void init() {
+        this.refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-shadow-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gaugeCollectionSize("cart.cache.refresh.pending", Tags.empty(), refreshing);
+        this.refreshedCounter = meterRegistry.counter("cart.cache.refresh.count");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshScheduler.shutdownNow();
+    }
+
+    public void scheduleRefresh(String userId, Supplier<?> loader) {
+        if (refreshing.add(userId)) {
+            refreshScheduler.schedule(() -> attempt(userId, loader, 1), intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    boolean isRefreshing(String userId) {
+        return refreshing.contains(userId);
+    }
+
+    private void attempt(String userId, Supplier<?> loader, int attempt) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER);
+
+        // While the breaker is open the task only checks its state; the load itself goes through the breaker so
+        // refreshes count towards (and are limited by) its half-open trial calls.
+        if (circuitBreaker.getState() != CircuitBreaker.State.OPEN) {
+            try {
+                circuitBreaker.executeSupplier(loader);
+                refreshedCounter.increment();
+                refreshing.remove(userId);
+                return;
+            } catch (Exception e) {
+                log.debug("Refresh of cart for user {} failed on attempt {}: {}", userId, attempt, e.getMessage());
+            }
+        }
+
+        if (attempt >= maxAttempts) {
+            // Give up; the next stale read for this user schedules a new task.
+            refreshing.remove(userId);
+            return;
+        }
+        refreshScheduler.schedule(() -> attempt(userId, loader, attempt + 1), intervalMs, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,25 @@
+package com.nexgen.cart_service.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Users whose hash falls in [startHash, endHash) are pinned to one shard, overriding the hash ring.
+// A frozen route rejects cart calls for its users while they are copied to that shard.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartShardRoute {
+    private long startHash;
+    private long endHash;
+    private String shard;
+    private boolean frozen;
+
+    public boolean contains(long hash) {
+        return hash >= startHash && hash < endHash;
+    }
+
+    public boolean overlaps(long start, long end) {
+        return start < endHash && startHash < end;
+    }
+}
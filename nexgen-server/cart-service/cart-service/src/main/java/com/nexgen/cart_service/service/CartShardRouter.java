@@ -0,0 +1,184 @@
+package com.nexgen.cart_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexgen.cart_service.config.CartRoutingDataSource;
+import com.nexgen.cart_service.exception.CartUnavailableException;
+import com.nexgen.cart_service.util.CartShardContext;
+import com.nexgen.cart_service.util.ConsistentHashRing;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+// Maps users to cart shards: a consistent-hash ring over the configured shards, overridden by the hash ranges that
+// re-sharding moves have pinned elsewhere. Those routes live in Redis so every replica sees a move at the same epoch.
+// With sharding off there is a single "default" shard and no routes.
+@Slf4j
+@Service
+public class CartShardRouter {
+
+    public static final String DEFAULT_SHARD = "default";
+
+    private static final String ROUTES_KEY = "cart:shard:routes";
+    private static final String EPOCH_KEY = "cart:shard:epoch";
+    private static final RedisScript<Long> ROUTE_SCRIPT = RedisScript.of(new ClassPathResource("scripts/cart-shard-route.lua"), Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate newTransaction;
+    private final boolean enabled;
+    private final List<String> shards;
+    private final ConsistentHashRing ring;
+    private final long maxRouteStalenessMs;
+
+    private volatile NavigableMap<Long, CartShardRoute> routes = new TreeMap<>();
+    private volatile long epoch = -1;
+    private volatile long routesCheckedAt;
+
+    public CartShardRouter(RedisTemplate<String, String> redisTemplate,
+                           ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager,
+                           ObjectProvider<CartRoutingDataSource> routingDataSource,
+                           @Value("${cart.sharding.virtual-nodes:128}") int virtualNodes,
+                           @Value("${cart.sharding.max-route-staleness-ms:3000}") long maxRouteStalenessMs) {
+        this.redisTemplate = redisTemplate;
+        this.maxRouteStalenessMs = maxRouteStalenessMs;
+        this.objectMapper = objectMapper;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        CartRoutingDataSource dataSource = routingDataSource.getIfAvailable();
+        this.enabled = dataSource != null;
+        this.shards = enabled ? List.copyOf(dataSource.getShards().keySet()) : List.of(DEFAULT_SHARD);
+        this.ring = new ConsistentHashRing(enabled ? dataSource.getRingShards() : shards, virtualNodes);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled && !loadRoutes()) {
+            // Starting without the moved ranges would send their users back to the shards they left.
+            throw new IllegalStateException("Could not load cart shard routes from Redis");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<String> shards() {
+        return shards;
+    }
+
+    public long maxRouteStalenessMs() {
+        return maxRouteStalenessMs;
+    }
+
+    public String shardFor(String userId) {
+        if (!enabled) {
+            return DEFAULT_SHARD;
+        }
+        if (System.currentTimeMillis() - routesCheckedAt > maxRouteStalenessMs) {
+            // Routes this old may predate a freeze; a move waits out this bound before it copies, so refusing is safe.
+            throw new CartUnavailableException("Cart routing is out of date, please retry shortly.");
+        }
+
+        long hash = ConsistentHashRing.hash(userId);
+        CartShardRoute route = routeFor(hash);
+        if (route == null) {
+            return ring.nodeForHash(hash);
+        }
+        if (route.isFrozen()) {
+            throw new CartUnavailableException("Cart is being moved to another shard, please retry shortly.");
+        }
+        return route.getShard();
+    }
+
+    public List<CartShardRoute> routes() {
+        return new ArrayList<>(routes.values());
+    }
+
+    // Runs the action in its own transaction on the given shard, suspending any transaction of the caller.
+    public <T> T inShard(String shard, Supplier<T> action) {
+        return CartShardContext.call(shard, () -> newTransaction.execute(status -> action.get()));
+    }
+
+    // Writes or drops one route and bumps the epoch in a single script, so replicas switch on one atomic change.
+    public void putRoute(CartShardRoute route) {
+        writeRoute(field(route.getStartHash(), route.getEndHash()), write(route));
+    }
+
+    public void dropRoute(long startHash, long endHash) {
+        writeRoute(field(startHash, endHash), "");
+    }
+
+    @Scheduled(fixedDelayString = "${cart.sharding.route-refresh-ms:1000}")
+    public void refreshRoutes() {
+        if (enabled) {
+            loadRoutes();
+        }
+    }
+
+    private void writeRoute(String field, String json) {
+        redisTemplate.execute(ROUTE_SCRIPT, List.of(ROUTES_KEY, EPOCH_KEY), field, json);
+        loadRoutes();
+    }
+
+    private boolean loadRoutes() {
+        try {
+            String current = redisTemplate.opsForValue().get(EPOCH_KEY);
+            long currentEpoch = current != null ? Long.parseLong(current) : 0;
+            if (currentEpoch == epoch) {
+                routesCheckedAt = System.currentTimeMillis();
+                return true;
+            }
+
+            NavigableMap<Long, CartShardRoute> loaded = new TreeMap<>();
+            for (Map.Entry<Object, Object> entry : redisTemplate.opsForHash().entries(ROUTES_KEY).entrySet()) {
+                CartShardRoute route = objectMapper.readValue((String) entry.getValue(), CartShardRoute.class);
+                loaded.put(route.getStartHash(), route);
+            }
+
+            this.routes = loaded;
+            this.epoch = currentEpoch;
+            this.routesCheckedAt = System.currentTimeMillis();
+            return true;
+        } catch (RuntimeException | JsonProcessingException e) {
+            // Keep routing with the last routes seen until they pass the staleness bound.
+            log.warn("Failed to refresh cart shard routes, keeping epoch {}: {}", epoch, e.getMessage());
+            return false;
+        }
+    }
+
+    private CartShardRoute routeFor(long hash) {
+        Map.Entry<Long, CartShardRoute> candidate = routes.floorEntry(hash);
+        return candidate != null && candidate.getValue().contains(hash) ? candidate.getValue() : null;
+    }
+
+    private String write(CartShardRoute route) {
+        try {
+            return objectMapper.writeValueAsString(route);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize cart shard route", e);
+        }
+    }
+
+    private static String field(long startHash, long endHash) {
+        return startHash + ":" + endHash;
+    }
+}
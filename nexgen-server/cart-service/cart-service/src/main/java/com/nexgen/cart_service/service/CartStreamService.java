@@ -0,0 +1,232 @@
+package com.nexgen.cart_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CartStreamService implements MessageListener {
+
+    private static final String CHANNEL_PREFIX = "cart:stream:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer cartStreamListenerContainer;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cart.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${cart.stream.max-pending-events:100}")
+    private int maxPendingEvents;
+
+    @Value("${cart.stream.delivery-threads:4}")
+    private int deliveryThreads;
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger activeSubscribers = new AtomicInteger();
+
+    private ExecutorService deliveryExecutor;
+    private Counter sentCounter;
+    private Counter droppedCounter;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.deliveryExecutor = Executors.newFixedThreadPool(deliveryThreads, runnable -> {
+            Thread thread = new Thread(runnable, "cart-stream-delivery-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("cart.stream.subscribers", activeSubscribers);
+        this.sentCounter = meterRegistry.counter("cart.stream.events.sent");
+        this.droppedCounter = meterRegistry.counter("cart.stream.subscribers.dropped");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(local -> new ArrayList<>(local).forEach(subscriber -> subscriber.emitter.complete()));
+        deliveryExecutor.shutdownNow();
+    }
+
+    public SseEmitter subscribe(String userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        // This instance only listens on a user's channel while it holds at least one of that user's connections.
+        subscribers.compute(userId, (id, local) -> {
+            if (local == null) {
+                local = ConcurrentHashMap.newKeySet();
+                cartStreamListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL_PREFIX + id));
+            }
+            local.add(subscriber);
+            return local;
+        });
+        activeSubscribers.incrementAndGet();
+
+        subscriber.offer(() -> SseEmitter.event().name("connected").data(userId));
+        return emitter;
+    }
+
+    // Called after a cart change commits; delivery is best effort, clients resync by reloading the cart on reconnect.
+    public void publish(String userId, Object event) {
+        try {
+            String message = event.getClass().getSimpleName() + "::" + objectMapper.writeValueAsString(event);
+            redisTemplate.convertAndSend(CHANNEL_PREFIX + userId, message);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to publish cart stream event for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        Set<Subscriber> local = subscribers.get(channel.substring(CHANNEL_PREFIX.length()));
+        if (local == null) {
+            return;
+        }
+
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("::", 2);
+        if (parts.length != 2) {
+            log.warn("Ignoring malformed cart stream message on {}", channel);
+            return;
+        }
+
+        local.forEach(subscriber -> subscriber.offer(() -> SseEmitter.event()
+                .name(parts[0])
+                .data(parts[1], MediaType.APPLICATION_JSON)));
+    }
+
+    @Scheduled(fixedDelayString = "${cart.stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        // Keeps proxies from closing quiet connections and surfaces clients that went away without closing.
+        subscribers.values().forEach(local -> local.forEach(subscriber -> {
+            if (subscriber.pendingCount.get() == 0) {
+                subscriber.offer(() -> SseEmitter.event().comment("heartbeat"));
+            }
+        }));
+    }
+
+    int subscriberCount(String userId) {
+        Set<Subscriber> local = subscribers.get(userId);
+        return local != null ? local.size() : 0;
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, local) -> {
+            local.remove(subscriber);
+            if (local.isEmpty()) {
+                cartStreamListenerContainer.removeMessageListener(this, new ChannelTopic(CHANNEL_PREFIX + id));
+                return null;
+            }
+            return local;
+        });
+        activeSubscribers.decrementAndGet();
+    }
+
+    // Events for one connection are queued and written by a shared pool, so a slow client never blocks the Redis listener.
+    private final class Subscriber {
+        private final String userId;
+        private final SseEmitter emitter;
+        private final Queue<Supplier<SseEmitter.SseEventBuilder>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(String userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(Supplier<SseEmitter.SseEventBuilder> event) {
+            if (closed.get()) {
+                return;
+            }
+
+            if (pendingCount.incrementAndGet() > maxPendingEvents) {
+                // Rather than buffer without bound for a client that cannot keep up, drop it; it reconnects and reloads the cart.
+                droppedCounter.increment();
+                close();
+                emitter.complete();
+                return;
+            }
+
+            pending.add(event);
+            scheduleDrain();
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                pending.clear();
+                unsubscribe(this);
+            }
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                deliveryExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                close();
+            }
+        }
+
+        private void drain() {
+            try {
+                Supplier<SseEmitter.SseEventBuilder> event;
+                while (!closed.get() && (event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    emitter.send(event.get());
+                    sentCounter.increment();
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Cart stream for user {} closed: {}", userId, e.getMessage());
+                close();
+            } finally {
+                draining.set(false);
+            }
+
+            if (!closed.get() && !pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
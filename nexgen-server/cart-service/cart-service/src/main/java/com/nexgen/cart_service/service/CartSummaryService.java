@@ -0,0 +1,62 @@
+package com.nexgen.cart_service.service;
+
+import com.nexgen.cart_service.dto.CartSummaryResponse;
+import com.nexgen.cart_service.entity.CartSummary;
+import com.nexgen.cart_service.repository.CartSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class CartSummaryService {
+
+    private final CartSummaryRepository summaryRepository;
+    private final RedisCartStore redisCartStore;
+
+    // In Redis mode the cart scripts keep the totals in the cart hash, so only SQL mode writes cart_summaries. Both
+    // writes return the cart's new version, or null in Redis mode.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Long applyChange(String userId, int itemCountDelta, int quantityDelta, double amountDelta) {
+        if (redisCartStore.isEnabled()) {
+            return null;
+        }
+
+        return summaryRepository.applyDelta(userId, itemCountDelta, quantityDelta, amountDelta);
+    }
+
+    // Must run after the item rows have changed, since the totals are recounted from them.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Long rebuild(String userId) {
+        if (redisCartStore.isEnabled()) {
+            return null;
+        }
+
+        return summaryRepository.rebuildFromItems(userId);
+    }
+
+    // Read before the cart rows, so the rows are at least as new as the version they are cached under.
+    public long currentVersion(String userId) {
+        Long version = summaryRepository.findVersion(userId);
+        return version != null ? version : 0;
+    }
+
+    @Transactional
+    public CartSummaryResponse getSummary(String userId) {
+        CartSummary summary = redisCartStore.isEnabled()
+                ? redisCartStore.getSummary(userId)
+                : summaryRepository.findById(userId).orElseGet(() -> {
+                    // Inserts only if still missing, so a concurrent first write or read cannot collide on the key.
+                    summaryRepository.insertFromItems(userId);
+                    return summaryRepository.findById(userId).orElseThrow();
+                });
+
+        return CartSummaryResponse.builder()
+                .userId(userId)
+                .itemCount(summary.getItemCount())
+                .totalQuantity(summary.getTotalQuantity())
+                .totalAmount(summary.getTotalAmount())
+                .build();
+    }
+}
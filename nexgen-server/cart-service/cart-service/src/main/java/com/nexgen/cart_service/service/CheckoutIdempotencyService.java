@@ -0,0 +1,83 @@
+package com.nexgen.cart_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexgen.cart_service.dto.CheckoutResponse;
+import com.nexgen.cart_service.exception.CheckoutInProgressException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CheckoutIdempotencyService {
+
+    private static final String RESPONSE_KEY_PREFIX = "cart:checkout:idempotency:";
+    private static final String LOCK_KEY_SUFFIX = ":lock";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisLockService lockService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${cart.checkout.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${cart.checkout.idempotency.lock-ttl-ms:30000}")
+    private long lockTtlMs;
+
+    public CheckoutResponse findCompleted(String userId, String idempotencyKey) {
+        String json = redisTemplate.opsForValue().get(responseKey(userId, idempotencyKey));
+        if (json == null) {
+            return null;
+        }
+
+        try {
+            return objectMapper.readValue(json, CheckoutResponse.class);
+        } catch (JsonProcessingException e) {
+            log.error("Unreadable stored checkout response for userId {} and key {}", userId, idempotencyKey, e);
+            return null;
+        }
+    }
+
+    // Must be called inside the checkout transaction; the lock is held until that transaction completes.
+    public void begin(String userId, String idempotencyKey) {
+        String lockKey = responseKey(userId, idempotencyKey) + LOCK_KEY_SUFFIX;
+        String token = lockService.tryLock(lockKey, Duration.ofMillis(lockTtlMs));
+
+        if (token == null) {
+            throw new CheckoutInProgressException("A checkout with this idempotency key is already in progress.");
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lockService.release(lockKey, token);
+            }
+        });
+    }
+
+    public void complete(String userId, String idempotencyKey, CheckoutResponse response) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    redisTemplate.opsForValue().set(responseKey(userId, idempotencyKey),
+                            objectMapper.writeValueAsString(response), Duration.ofHours(ttlHours));
+                } catch (JsonProcessingException e) {
+                    log.error("Failed to store checkout response for userId {} and key {}", userId, idempotencyKey, e);
+                }
+            }
+        });
+    }
+
+    private String responseKey(String userId, String idempotencyKey) {
+        return RESPONSE_KEY_PREFIX + userId + ":" + idempotencyKey;
+    }
+}
@@ -0,0 +1,38 @@
+package com.nexgen.cart_service.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+// Marks a guest cart whose lines a committed cross-shard merge already took, until the guest rows are gone from the
+// guest's own shard. A merge of a marked guest cart must not stage those rows again.
+@Service
+@RequiredArgsConstructor
+public class GuestCartTombstoneService {
+
+    private static final String TOMBSTONE_KEY_PREFIX = "cart:merge:tombstone:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Value("${cart.merge.tombstone-ttl-hours:72}")
+    private long ttlHours;
+
+    public boolean isMerged(String guestId) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(tombstoneKey(guestId)));
+    }
+
+    public void mark(String guestId, String userId) {
+        redisTemplate.opsForValue().set(tombstoneKey(guestId), userId, Duration.ofHours(ttlHours));
+    }
+
+    public void clear(String guestId) {
+        redisTemplate.delete(tombstoneKey(guestId));
+    }
+
+    private String tombstoneKey(String guestId) {
+        return TOMBSTONE_KEY_PREFIX + guestId;
+    }
+}
@@ -2,9 +2,15 @@ package com.nexgen.cart_service.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexgen.cart_service.dto.CartEventTypes;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,12 +18,19 @@ import java.util.List;
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@SuppressWarnings({"rawtypes", "unchecked"})
 public class KafkaFallbackService {
 
     private final RedisTemplate<String, String> redisTemplate;
     private final ObjectMapper objectMapper;
 
     private static final String REDIS_FAILED_EVENT_QUEUE = "FAILED_KAFKA_EVENTS";
+    private static final String REDIS_PROCESSING_QUEUE = "FAILED_KAFKA_EVENTS:processing";
+    private static final List<String> QUEUE_KEYS = List.of(REDIS_FAILED_EVENT_QUEUE, REDIS_PROCESSING_QUEUE);
+
+    private static final RedisScript<List> CLAIM_SCRIPT = RedisScript.of(new ClassPathResource("scripts/fallback-claim.lua"), List.class);
+    private static final RedisScript<Long> REQUEUE_SCRIPT = RedisScript.of(new ClassPathResource("scripts/fallback-requeue.lua"), Long.class);
+    private static final RedisScript<Long> RECOVER_SCRIPT = RedisScript.of(new ClassPathResource("scripts/fallback-recover.lua"), Long.class);
 
     public void enqueueFailedEvent(Object event) {
         try {
@@ -30,15 +43,48 @@ public class KafkaFallbackService {
         }
     }
 
+    public Object readEvent(String composite) throws JsonProcessingException {
+        String[] parts = composite.split("::", 2);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Malformed fallback event: " + composite);
+        }
+        return objectMapper.readValue(parts[1], CartEventTypes.resolve(parts[0]));
+    }
+
+    public long backlogSize() {
+        Long size = redisTemplate.opsForList().size(REDIS_FAILED_EVENT_QUEUE);
+        return size != null ? size : 0;
+    }
 
-    public List<String> getFailedEvents(int max) {
-        return redisTemplate.opsForList()
-                .range(REDIS_FAILED_EVENT_QUEUE, 0, max - 1);
+    public List<String> claimBatch(int max) {
+        List<String> claimed = redisTemplate.execute(CLAIM_SCRIPT, QUEUE_KEYS, String.valueOf(max));
+        return claimed != null ? claimed : List.of();
     }
 
-    public void removeProcessedEvents(int count) {
-        for (int i = 0; i < count; i++) {
-            redisTemplate.opsForList().leftPop(REDIS_FAILED_EVENT_QUEUE);
+    public void acknowledge(List<String> events) {
+        if (events.isEmpty()) {
+            return;
         }
+
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (String event : events) {
+                    operations.opsForList().remove(REDIS_PROCESSING_QUEUE, 1, event);
+                }
+                return null;
+            }
+        });
+    }
+
+    public void requeue(List<String> events) {
+        if (!events.isEmpty()) {
+            redisTemplate.execute(REQUEUE_SCRIPT, QUEUE_KEYS, events.toArray());
+        }
+    }
+
+    public long recoverStranded() {
+        Long recovered = redisTemplate.execute(RECOVER_SCRIPT, QUEUE_KEYS);
+        return recovered != null ? recovered : 0;
     }
 }
@@ -0,0 +1,273 @@
+package com.nexgen.cart_service.service;
+
+import com.nexgen.cart_service.dto.CartBatchOperation;
+import com.nexgen.cart_service.dto.CartBatchRequest;
+import com.nexgen.cart_service.dto.CartItemRequest;
+import com.nexgen.cart_service.dto.CartOperationType;
+import com.nexgen.cart_service.dto.ProductEvent;
+import com.nexgen.cart_service.exception.PriceMismatchException;
+import com.nexgen.cart_service.exception.ProductNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductPriceClient {
+
+    private static final String PRICES_PATH = "/api/v1/products/prices";
+
+    private final RestClient.Builder restClientBuilder;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cart.pricing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cart.pricing.product-service-url:http://localhost:8083}")
+    private String productServiceUrl;
+
+    @Value("${cart.pricing.cache-ttl-ms:300000}")
+    private long cacheTtlMs;
+
+    @Value("${cart.pricing.batch-window-ms:5}")
+    private long batchWindowMs;
+
+    @Value("${cart.pricing.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${cart.pricing.lookup-timeout-ms:500}")
+    private long lookupTimeoutMs;
+
+    @Value("${cart.pricing.tolerance:0.01}")
+    private double tolerance;
+
+    private final Map<String, CachedPrice> cache = new ConcurrentHashMap<>();
+    // Moved by every product event; a fetch caches its price only if the SKU's generation has not moved since it started.
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Double>> inFlight = new ConcurrentHashMap<>();
+    private final Object batchLock = new Object();
+    private Map<String, CompletableFuture<Double>> queued = new HashMap<>();
+
+    private RestClient restClient;
+    private ScheduledExecutorService batchScheduler;
+    private Counter cacheHitCounter;
+    private Counter cacheMissCounter;
+    private Counter mismatchCounter;
+    private Counter failOpenCounter;
+    private DistributionSummary batchSizeSummary;
+
+    @PostConstruct
+    public void init() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofMillis(lookupTimeoutMs));
+        requestFactory.setReadTimeout(Duration.ofMillis(lookupTimeoutMs));
+        this.restClient = restClientBuilder
+                .baseUrl(productServiceUrl)
+                .requestFactory(requestFactory)
+                .build();
+
+        this.batchScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-price-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cacheHitCounter = meterRegistry.counter("cart.pricing.cache.hit");
+        this.cacheMissCounter = meterRegistry.counter("cart.pricing.cache.miss");
+        this.mismatchCounter = meterRegistry.counter("cart.pricing.mismatch.count");
+        this.failOpenCounter = meterRegistry.counter("cart.pricing.failopen.count");
+        this.batchSizeSummary = DistributionSummary.builder("cart.pricing.batch.size")
+                .description("SKUs per product-service price request")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchScheduler.shutdownNow();
+    }
+
+    // Callers run these before the cart transaction opens, so a slow catalog never holds a pooled connection.
+    public void validateItem(CartItemRequest itemRequest) {
+        validatePrices(Map.of(itemRequest.getProductId(), itemRequest.getPrice()));
+    }
+
+    public void validateBatch(CartBatchRequest request) {
+        Map<String, Double> quotedPrices = new HashMap<>();
+        for (CartBatchOperation operation : request.getOperations()) {
+            if (operation.getPrice() == null || operation.getType() == CartOperationType.REMOVE) {
+                continue;
+            }
+            Double previous = quotedPrices.putIfAbsent(operation.getProductId(), operation.getPrice());
+            if (previous != null && !previous.equals(operation.getPrice())) {
+                throw new PriceMismatchException("Conflicting prices for product " + operation.getProductId() + " in one batch.");
+            }
+        }
+        validatePrices(quotedPrices);
+    }
+
+    // Checks client-quoted unit prices against the catalog; throws if a product is unknown or its price differs.
+    public void validatePrices(Map<String, Double> unitPrices) {
+        if (!enabled || unitPrices.isEmpty()) {
+            return;
+        }
+
+        Map<String, CompletableFuture<Double>> lookups = new LinkedHashMap<>();
+        unitPrices.keySet().forEach(skuCode -> lookups.put(skuCode, load(skuCode)));
+
+        try {
+            CompletableFuture.allOf(lookups.values().toArray(new CompletableFuture[0]))
+                    .get(lookupTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failOpen(unitPrices.keySet(), e);
+            return;
+        } catch (ExecutionException | TimeoutException e) {
+            // The catalog being slow or down must not take add-to-cart with it; the quoted prices are accepted as-is.
+            failOpen(unitPrices.keySet(), e);
+            return;
+        }
+
+        unitPrices.forEach((skuCode, quoted) -> {
+            Double catalogPrice = lookups.get(skuCode).join();
+            if (catalogPrice == null) {
+                throw new ProductNotFoundException("Product " + skuCode + " is not in the catalog.");
+            }
+            if (Math.abs(catalogPrice - quoted) > tolerance) {
+                mismatchCounter.increment();
+                throw new PriceMismatchException("Price for product " + skuCode + " is " + catalogPrice + ", not " + quoted + ".");
+            }
+        });
+    }
+
+    CompletableFuture<Double> load(String skuCode) {
+        CachedPrice cached = cache.get(skuCode);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            cacheHitCounter.increment();
+            return CompletableFuture.completedFuture(cached.price());
+        }
+        cacheMissCounter.increment();
+
+        CompletableFuture<Double> pending = inFlight.get(skuCode);
+        if (pending != null) {
+            return pending;
+        }
+
+        // Misses from concurrent requests within the batch window are collected into one multi-SKU fetch.
+        synchronized (batchLock) {
+            CompletableFuture<Double> future = queued.get(skuCode);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                queued.put(skuCode, future);
+                if (queued.size() == 1) {
+                    batchScheduler.schedule(this::dispatch, batchWindowMs, TimeUnit.MILLISECONDS);
+                } else if (queued.size() >= maxBatchSize) {
+                    batchScheduler.execute(this::dispatch);
+                }
+            }
+            return future;
+        }
+    }
+
+    void dispatch() {
+        Map<String, CompletableFuture<Double>> batch;
+        synchronized (batchLock) {
+            if (queued.isEmpty()) {
+                return;
+            }
+            batch = queued;
+            queued = new HashMap<>();
+            inFlight.putAll(batch);
+        }
+
+        batchSizeSummary.record(batch.size());
+        Map<String, Long> startedAt = new HashMap<>();
+        batch.keySet().forEach(skuCode -> startedAt.put(skuCode, generation(skuCode)));
+        try {
+            Map<String, Double> prices = fetchPrices(batch.keySet());
+            batch.forEach((skuCode, future) -> {
+                Double price = prices.get(skuCode);
+                if (price != null) {
+                    cache(skuCode, price, startedAt.get(skuCode));
+                }
+                future.complete(price);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Price lookup for {} products failed: {}", batch.size(), e.getMessage());
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        } finally {
+            batch.forEach(inFlight::remove);
+        }
+    }
+
+    Map<String, Double> fetchPrices(Collection<String> skuCodes) {
+        Map<String, Double> prices = restClient.get()
+                .uri(uriBuilder -> uriBuilder.path(PRICES_PATH).queryParam("skuCodes", skuCodes).build())
+                .retrieve()
+                .body(new ParameterizedTypeReference<Map<String, Double>>() {});
+        return prices != null ? prices : Map.of();
+    }
+
+    @KafkaListener(
+            topics = {"${topic.product-created}", "${topic.product-updated}", "${topic.product-deleted}"},
+            // every instance keeps its own cache, so every instance needs every event
+            groupId = "cart-service-prices-${random.uuid}",
+            autoStartup = "${cart.pricing.enabled:true}",
+            properties = {
+                    "spring.json.use.type.headers=false",
+                    "spring.json.value.default.type=com.nexgen.cart_service.dto.ProductEvent"
+            })
+    public void onProductEvent(ProductEvent event) {
+        if (event == null || event.getSkuCode() == null) {
+            return;
+        }
+
+        // The event's timestamp comes from product-service's clock and cannot be ordered against this instance's
+        // fetches, so the event only invalidates: the next lookup fetches the price afresh.
+        generations.merge(event.getSkuCode(), 1L, Long::sum);
+        cache.remove(event.getSkuCode());
+        inFlight.remove(event.getSkuCode());
+    }
+
+    private void cache(String skuCode, double price, long generation) {
+        // Checked under the entry's lock, and an event moves the generation before it removes the entry, so a fetch
+        // that overlapped the event either sees the new generation or has its price removed right after.
+        cache.compute(skuCode, (key, current) -> generation(skuCode) == generation
+                ? new CachedPrice(price, System.currentTimeMillis() + cacheTtlMs)
+                : current);
+    }
+
+    private long generation(String skuCode) {
+        return generations.getOrDefault(skuCode, 0L);
+    }
+
+    private void failOpen(Collection<String> skuCodes, Exception e) {
+        failOpenCounter.increment();
+        log.warn("Price validation skipped for {}: {}", skuCodes, e.getMessage());
+    }
+
+    private record CachedPrice(double price, long expiresAt) {
+    }
+}
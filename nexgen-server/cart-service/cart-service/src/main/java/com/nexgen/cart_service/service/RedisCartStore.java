@@ -0,0 +1,427 @@
+package com.nexgen.cart_service.service;
+
+import com.nexgen.cart_service.dto.AddToCartEvent;
+import com.nexgen.cart_service.dto.CartItemsChangedEvent;
+import com.nexgen.cart_service.dto.CartMergePolicy;
+import com.nexgen.cart_service.dto.CartMergedEvent;
+import com.nexgen.cart_service.dto.RemoveFromCartEvent;
+import com.nexgen.cart_service.entity.CartItem;
+import com.nexgen.cart_service.exception.CartItemNotFoundException;
+import com.nexgen.cart_service.exception.CartUnavailableException;
+import com.nexgen.cart_service.exception.InvalidQuantityException;
+import com.nexgen.cart_service.entity.CartSummary;
+import com.nexgen.cart_service.repository.CartItemRepository;
+import com.nexgen.cart_service.repository.CartSummaryRepository;
+import com.nexgen.cart_service.util.CartShardContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class RedisCartStore {
+
+    private static final String CART_KEY_PREFIX = "cart:items:";
+    private static final String CART_CACHE_KEY_PREFIX = "cart::";
+    private static final String DIRTY_CARTS_KEY = "cart:dirty";
+    private static final String FLUSHING_CARTS_KEY = "cart:dirty:processing";
+    private static final String OUTBOX_KEY = "cart:outbox";
+    private static final List<String> DIRTY_SET_KEYS = List.of(DIRTY_CARTS_KEY, FLUSHING_CARTS_KEY);
+    private static final String LOADED_FIELD = "_loaded";
+    private static final String QUANTITY_PREFIX = "q:";
+    private static final String AMOUNT_PREFIX = "p:";
+    private static final String COUNT_TOTAL_FIELD = "_count";
+    private static final String QUANTITY_TOTAL_FIELD = "_quantity";
+    private static final String AMOUNT_TOTAL_FIELD = "_amount";
+
+    private static final long STATUS_NOT_LOADED = 0;
+    private static final long STATUS_NOT_FOUND = -1;
+    private static final long STATUS_INSUFFICIENT = -2;
+
+    private static final RedisScript<List> ADD_SCRIPT = RedisScript.of(new ClassPathResource("scripts/cart-add.lua"), List.class);
+    private static final RedisScript<List> REMOVE_SCRIPT = RedisScript.of(new ClassPathResource("scripts/cart-remove.lua"), List.class);
+    private static final RedisScript<List> DRAIN_SCRIPT = RedisScript.of(new ClassPathResource("scripts/cart-drain.lua"), List.class);
+    private static final RedisScript<List> MERGE_SCRIPT = RedisScript.of(new ClassPathResource("scripts/cart-merge.lua"), List.class);
+    private static final RedisScript<Long> BATCH_SCRIPT = RedisScript.of(new ClassPathResource("scripts/cart-batch.lua"), Long.class);
+    private static final RedisScript<Long> SEED_SCRIPT = RedisScript.of(new ClassPathResource("scripts/cart-seed.lua"), Long.class);
+    private static final RedisScript<List> CLAIM_DIRTY_SCRIPT = RedisScript.of(new ClassPathResource("scripts/cart-dirty-claim.lua"), List.class);
+    private static final RedisScript<Long> REQUEUE_DIRTY_SCRIPT = RedisScript.of(new ClassPathResource("scripts/cart-dirty-requeue.lua"), Long.class);
+    private static final RedisScript<Long> EVICT_SCRIPT = RedisScript.of(new ClassPathResource("scripts/cart-evict.lua"), Long.class);
+    private static final RedisScript<Long> RECOVER_DIRTY_SCRIPT = RedisScript.of(new ClassPathResource("scripts/cart-dirty-recover.lua"), Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final CartItemRepository cartRepository;
+    private final CartSummaryRepository summaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CartShardRouter cartShardRouter;
+    private final CartOutboxService cartOutboxService;
+
+    @Value("${cart.store.mode:sql}")
+    private String mode;
+
+    @Value("${cart.store.redis.ttl-hours:168}")
+    private long ttlHours;
+
+    public boolean isEnabled() {
+        return "redis".equalsIgnoreCase(mode);
+    }
+
+    public List<CartItem> getItems(String userId) {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(cartKey(userId));
+
+        if (entries.isEmpty()) {
+            return rebuildFromDatabase(userId);
+        }
+
+        return toItems(userId, entries);
+    }
+
+    // Each change appends its event to the Redis outbox in the same script; the script fills in the resulting line.
+    public CartItem addItem(String userId, String productId, int quantity, double amount, AddToCartEvent event) {
+        List<Object> result = executeOnLoadedCart(userId, ADD_SCRIPT,
+                productId, String.valueOf(quantity), String.valueOf(amount), outboxEntry(userId, event));
+
+        return toItem(userId, productId, result);
+    }
+
+    public CartItemRemoval removeItem(String userId, String productId, int quantity, RemoveFromCartEvent event) {
+        List<Object> result = executeOnLoadedCart(userId, REMOVE_SCRIPT, productId, String.valueOf(quantity),
+                outboxEntry(userId, event));
+        long status = ((Number) result.get(0)).longValue();
+
+        if (status == STATUS_NOT_FOUND) {
+            throw new CartItemNotFoundException("Cart item not found for userId: " + userId + " and productId: " + productId);
+        }
+        if (status == STATUS_INSUFFICIENT) {
+            throw new InvalidQuantityException("Reduce amount is greater than quantity in cart.");
+        }
+
+        return new CartItemRemoval(toItem(userId, productId, result), Double.parseDouble(String.valueOf(result.get(3))));
+    }
+
+    // Writes the final lines of a batch in one script, but only if none of them changed since `current` was read.
+    public boolean applyBatch(String userId, Map<String, CartItem> current, Collection<CartItem> updated,
+                              CartItemsChangedEvent event) {
+        List<String> args = new ArrayList<>();
+        args.add(userId);
+        args.add(String.valueOf(ttlSeconds()));
+        args.add(event != null ? outboxEntry(userId, event) : "");
+        for (CartItem line : updated) {
+            CartItem before = current.get(line.getProductId());
+            args.add(line.getProductId());
+            args.add(String.valueOf(before != null ? before.getQuantity() : 0));
+            args.add(String.valueOf(before != null ? before.getPrice() : 0.0));
+            args.add(String.valueOf(line.getQuantity()));
+            args.add(String.valueOf(line.getPrice()));
+        }
+
+        Long status = redisTemplate.execute(BATCH_SCRIPT, List.of(cartKey(userId), DIRTY_CARTS_KEY, OUTBOX_KEY), args.toArray());
+
+        // 0 means the hash was evicted and -3 that a line changed; either way the caller re-reads, which rebuilds it.
+        return status != null && status > 0;
+    }
+
+    // event is a CartClearedEvent or CheckoutEvent; the script fills in the drained lines.
+    public List<CartItem> drain(String userId, Object event) {
+        List<Object> result = executeOnLoadedCart(userId, DRAIN_SCRIPT, outboxEntry(userId, event));
+
+        Map<Object, Object> entries = new LinkedHashMap<>();
+        for (int i = 1; i + 1 < result.size(); i += 2) {
+            entries.put(result.get(i), result.get(i + 1));
+        }
+
+        return toItems(userId, entries);
+    }
+
+    // Returns the user's lines that changed, with their merged quantity and amount.
+    public List<CartItem> mergeCarts(String userId, String guestId, CartMergePolicy policy, CartMergedEvent event) {
+        List<String> keys = List.of(cartKey(userId), cartKey(guestId), DIRTY_CARTS_KEY, OUTBOX_KEY);
+        Object[] args = {userId, guestId, String.valueOf(ttlSeconds()), policy.name(), outboxEntry(userId, event)};
+
+        List<Object> result = redisTemplate.execute(MERGE_SCRIPT, keys, args);
+
+        if (((Number) result.get(0)).longValue() == STATUS_NOT_LOADED) {
+            getItems(userId);
+            getItems(guestId);
+            result = redisTemplate.execute(MERGE_SCRIPT, keys, args);
+        }
+
+        if (((Number) result.get(0)).longValue() == STATUS_NOT_LOADED) {
+            throw new IllegalStateException("Redis carts for userId " + userId + " and guestId " + guestId + " could not be loaded");
+        }
+
+        List<CartItem> merged = new ArrayList<>();
+        for (int i = 1; i + 2 < result.size(); i += 3) {
+            merged.add(CartItem.builder()
+                    .userId(userId)
+                    .productId(String.valueOf(result.get(i)))
+                    .quantity(((Number) result.get(i + 1)).intValue())
+                    .price(Double.parseDouble(String.valueOf(result.get(i + 2))))
+                    .build());
+        }
+        return merged;
+    }
+
+    public List<CartItem> rebuildFromDatabase(String userId) {
+        List<CartItem> items = cartRepository.findByUserId(userId);
+
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(ttlSeconds()));
+        args.add(LOADED_FIELD);
+        args.add("1");
+        args.add(COUNT_TOTAL_FIELD);
+        args.add(String.valueOf(items.size()));
+        args.add(QUANTITY_TOTAL_FIELD);
+        args.add(String.valueOf(items.stream().mapToInt(CartItem::getQuantity).sum()));
+        args.add(AMOUNT_TOTAL_FIELD);
+        args.add(String.valueOf(items.stream().mapToDouble(CartItem::getPrice).sum()));
+        for (CartItem item : items) {
+            args.add(QUANTITY_PREFIX + item.getProductId());
+            args.add(String.valueOf(item.getQuantity()));
+            args.add(AMOUNT_PREFIX + item.getProductId());
+            args.add(String.valueOf(item.getPrice()));
+        }
+
+        Long seeded = redisTemplate.execute(SEED_SCRIPT, List.of(cartKey(userId)), args.toArray());
+
+        if (seeded == null || seeded == 0) {
+            // Another writer rebuilt the hash first; its view may already include newer writes.
+            return toItems(userId, redisTemplate.opsForHash().entries(cartKey(userId)));
+        }
+
+        log.info("Rebuilt Redis cart for userId {} from database with {} items", userId, items.size());
+        return items;
+    }
+
+    public CartSummary getSummary(String userId) {
+        List<Object> fields = List.of(LOADED_FIELD, COUNT_TOTAL_FIELD, QUANTITY_TOTAL_FIELD, AMOUNT_TOTAL_FIELD);
+        List<Object> values = redisTemplate.opsForHash().multiGet(cartKey(userId), fields);
+
+        if (values.get(0) == null) {
+            rebuildFromDatabase(userId);
+            values = redisTemplate.opsForHash().multiGet(cartKey(userId), fields);
+        }
+
+        return CartSummary.builder()
+                .userId(userId)
+                .itemCount(values.get(1) != null ? Integer.parseInt(String.valueOf(values.get(1))) : 0)
+                .totalQuantity(values.get(2) != null ? Integer.parseInt(String.valueOf(values.get(2))) : 0)
+                .totalAmount(values.get(3) != null ? Double.parseDouble(String.valueOf(values.get(3))) : 0)
+                .build();
+    }
+
+    // Drops the cached item list and the cart hash of every given user in one round trip; hashes still waiting to be
+    // flushed are kept, since their changes are newer than the rows that were just deleted.
+    public void evictCarts(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>(DIRTY_SET_KEYS);
+        for (String userId : userIds) {
+            keys.add(CART_CACHE_KEY_PREFIX + userId);
+            keys.add(cartKey(userId));
+        }
+        redisTemplate.execute(EVICT_SCRIPT, keys, userIds.toArray());
+    }
+
+    // Users whose Redis cart is live: loaded, changed since the last flush, or being flushed. Their SQL rows can look
+    // idle only because the newer changes have not been written back yet.
+    public Set<String> findLiveCarts(List<String> userIds) {
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (String userId : userIds) {
+                    operations.hasKey(cartKey(userId));
+                    operations.opsForSet().isMember(DIRTY_CARTS_KEY, userId);
+                    operations.opsForSet().isMember(FLUSHING_CARTS_KEY, userId);
+                }
+                return null;
+            }
+        });
+
+        Set<String> live = new HashSet<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            for (int check = 0; check < 3; check++) {
+                if (Boolean.TRUE.equals(results.get(i * 3 + check))) {
+                    live.add(userIds.get(i));
+                }
+            }
+        }
+        return live;
+    }
+
+    public int flushDirtyCarts(int batchSize) {
+        // Claimed ids stay in the processing set until their rows are committed, so a crash mid-flush loses nothing.
+        List<String> userIds = redisTemplate.execute(CLAIM_DIRTY_SCRIPT, DIRTY_SET_KEYS, String.valueOf(batchSize));
+
+        if (userIds == null || userIds.isEmpty()) {
+            return 0;
+        }
+
+        List<Object> snapshots = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (String userId : userIds) {
+                    operations.opsForHash().entries(cartKey(userId));
+                }
+                return null;
+            }
+        });
+
+        Map<String, List<String>> usersByShard = new LinkedHashMap<>();
+        Map<String, List<CartItem>> itemsByShard = new LinkedHashMap<>();
+        List<String> flushed = new ArrayList<>();
+        List<String> requeue = new ArrayList<>();
+
+        for (int i = 0; i < userIds.size(); i++) {
+            Map<Object, Object> entries = (Map<Object, Object>) snapshots.get(i);
+
+            String userId = userIds.get(i);
+            // A missing hash means the cart was lost with Redis; keep the last flushed rows instead of wiping them.
+            if (entries == null || entries.isEmpty()) {
+                flushed.add(userId);
+                continue;
+            }
+
+            String shard;
+            try {
+                shard = cartShardRouter.shardFor(userId);
+            } catch (CartUnavailableException e) {
+                // Frozen for a shard move; flushed to the new shard on a later run.
+                requeue.add(userId);
+                continue;
+            }
+
+            usersByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(userId);
+            itemsByShard.computeIfAbsent(shard, key -> new ArrayList<>()).addAll(toItems(userId, entries));
+        }
+
+        usersByShard.forEach((shard, flushedUserIds) -> {
+            try {
+                CartShardContext.run(shard, () -> transactionTemplate.executeWithoutResult(status -> {
+                    cartRepository.deleteByUserIdIn(flushedUserIds);
+                    cartRepository.saveAll(itemsByShard.get(shard));
+                    // Headers are rebuilt from the flushed rows if the service is switched back to SQL mode.
+                    summaryRepository.deleteByUserIdIn(flushedUserIds);
+                }));
+                flushed.addAll(flushedUserIds);
+            } catch (RuntimeException ex) {
+                log.error("Write-behind flush failed for {} carts on shard {}, requeueing", flushedUserIds.size(), shard, ex);
+                requeue.addAll(flushedUserIds);
+            }
+        });
+
+        if (!flushed.isEmpty()) {
+            redisTemplate.opsForSet().remove(FLUSHING_CARTS_KEY, flushed.toArray());
+        }
+
+        if (!requeue.isEmpty()) {
+            redisTemplate.execute(REQUEUE_DIRTY_SCRIPT, DIRTY_SET_KEYS, requeue.toArray());
+            return 0;
+        }
+
+        return userIds.size();
+    }
+
+    // Only safe while holding the flush lock: any cart still marked as being flushed was left by a flusher that died.
+    public long recoverStrandedDirtyCarts() {
+        Long recovered = redisTemplate.execute(RECOVER_DIRTY_SCRIPT, DIRTY_SET_KEYS);
+        return recovered != null ? recovered : 0;
+    }
+
+    // Oldest first; only the relay holding the relay lock reads and trims the list.
+    public List<String> peekOutbox(int count) {
+        List<String> entries = redisTemplate.opsForList().range(OUTBOX_KEY, 0, count - 1);
+        return entries != null ? entries : List.of();
+    }
+
+    public void trimOutbox(int delivered) {
+        redisTemplate.opsForList().trim(OUTBOX_KEY, delivered, -1);
+    }
+
+    private String outboxEntry(String userId, Object event) {
+        String entry = cartOutboxService.redisEntry(userId, event);
+        return entry != null ? entry : "";
+    }
+
+    private List<Object> executeOnLoadedCart(String userId, RedisScript<List> script, String... args) {
+        List<String> keys = List.of(cartKey(userId), DIRTY_CARTS_KEY, OUTBOX_KEY);
+
+        Object[] scriptArgs = new Object[args.length + 2];
+        scriptArgs[0] = userId;
+        scriptArgs[1] = String.valueOf(ttlSeconds());
+        System.arraycopy(args, 0, scriptArgs, 2, args.length);
+
+        List<Object> result = redisTemplate.execute(script, keys, scriptArgs);
+
+        if (((Number) result.get(0)).longValue() == STATUS_NOT_LOADED) {
+            rebuildFromDatabase(userId);
+            result = redisTemplate.execute(script, keys, scriptArgs);
+        }
+
+        if (((Number) result.get(0)).longValue() == STATUS_NOT_LOADED) {
+            throw new IllegalStateException("Redis cart for userId " + userId + " could not be loaded");
+        }
+
+        return result;
+    }
+
+    private CartItem toItem(String userId, String productId, List<Object> result) {
+        return CartItem.builder()
+                .userId(userId)
+                .productId(productId)
+                .quantity(((Number) result.get(1)).intValue())
+                .price(Double.parseDouble(String.valueOf(result.get(2))))
+                .build();
+    }
+
+    private List<CartItem> toItems(String userId, Map<Object, Object> entries) {
+        Map<String, CartItem> items = new LinkedHashMap<>();
+
+        entries.forEach((field, value) -> {
+            String name = String.valueOf(field);
+
+            if (name.startsWith(QUANTITY_PREFIX)) {
+                itemFor(items, userId, name.substring(QUANTITY_PREFIX.length()))
+                        .setQuantity(Integer.parseInt(String.valueOf(value)));
+            } else if (name.startsWith(AMOUNT_PREFIX)) {
+                itemFor(items, userId, name.substring(AMOUNT_PREFIX.length()))
+                        .setPrice(Double.parseDouble(String.valueOf(value)));
+            }
+        });
+
+        return new ArrayList<>(items.values());
+    }
+
+    private CartItem itemFor(Map<String, CartItem> items, String userId, String productId) {
+        return items.computeIfAbsent(productId, id -> CartItem.builder().userId(userId).productId(id).build());
+    }
+
+    private long ttlSeconds() {
+        return TimeUnit.HOURS.toSeconds(ttlHours);
+    }
+
+    private String cartKey(String userId) {
+        return CART_KEY_PREFIX + userId;
+    }
+}
@@ -0,0 +1,39 @@
+package com.nexgen.cart_service.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class RedisLockService {
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of(new ClassPathResource("scripts/lock-release.lua"), Long.class);
+    private static final RedisScript<Long> EXTEND_SCRIPT = RedisScript.of(new ClassPathResource("scripts/lock-extend.lua"), Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public String tryLock(String key, Duration ttl) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(key, token, ttl);
+        return Boolean.TRUE.equals(acquired) ? token : null;
+    }
+
+    // False once the lock has expired or passed to another owner.
+    public boolean extend(String key, String token, Duration ttl) {
+        Long extended = redisTemplate.execute(EXTEND_SCRIPT, List.of(key), token, String.valueOf(ttl.toMillis()));
+        return extended != null && extended == 1;
+    }
+
+    public void release(String key, String token) {
+        if (token != null) {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(key), token);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.nexgen.cart_service.util;
+
+import com.nexgen.cart_service.dto.CartsExpiredEvent;
+import com.nexgen.cart_service.repository.CartItemRepository;
+import com.nexgen.cart_service.repository.CartSummaryRepository;
+import com.nexgen.cart_service.service.CartOutboxService;
+import com.nexgen.cart_service.service.CartShardRouter;
+import com.nexgen.cart_service.service.RedisCartStore;
+import com.nexgen.cart_service.service.RedisLockService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AbandonedCartSweeper {
+
+    private static final String SWEEPER_LOCK_KEY = "cart:sweeper:lock";
+    private static final String EVENT_KEY = "cart-sweeper";
+
+    private final CartItemRepository cartRepository;
+    private final CartSummaryRepository summaryRepository;
+    private final CartOutboxService cartOutboxService;
+    private final RedisCartStore redisCartStore;
+    private final RedisLockService lockService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final CartShardRouter cartShardRouter;
+
+    @Value("${cart.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cart.sweeper.idle-days:30}")
+    private long idleDays;
+
+    @Value("${cart.sweeper.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${cart.sweeper.max-chunks-per-run:50}")
+    private int maxChunksPerRun;
+
+    @Value("${cart.sweeper.chunk-pause-ms:100}")
+    private long chunkPauseMs;
+
+    @Value("${cart.sweeper.backfill-chunk-size:5000}")
+    private int backfillChunkSize;
+
+    private Counter rowsSweptCounter;
+    private Counter cartsExpiredCounter;
+    private DistributionSummary rowsPerRun;
+
+    @PostConstruct
+    public void initMetrics() {
+        this.rowsSweptCounter = meterRegistry.counter("cart.sweeper.rows.swept");
+        this.cartsExpiredCounter = meterRegistry.counter("cart.sweeper.carts.expired");
+        this.rowsPerRun = DistributionSummary.builder("cart.sweeper.rows.per.run")
+                .description("Cart rows deleted by one sweeper run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${cart.sweeper.interval-ms:3600000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+
+        List<String> shards = cartShardRouter.shards();
+        long budgetMs = shards.size() * maxChunksPerRun * (chunkPauseMs + 5000L);
+        String token = lockService.tryLock(SWEEPER_LOCK_KEY, Duration.ofMillis(budgetMs));
+        if (token == null) {
+            return;
+        }
+
+        int rows = 0;
+        try {
+            Instant cutoff = Instant.now().minus(Duration.ofDays(idleDays));
+            for (String shard : shards) {
+                String previous = CartShardContext.enter(shard);
+                try {
+                    rows += sweepShard(cutoff);
+                } finally {
+                    CartShardContext.exit(previous);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Abandoned cart sweep failed, will retry next run", e);
+        } finally {
+            lockService.release(SWEEPER_LOCK_KEY, token);
+            rowsPerRun.record(rows);
+        }
+
+        if (rows > 0) {
+            log.info("Swept {} abandoned cart rows", rows);
+        }
+    }
+
+    private int sweepShard(Instant cutoff) throws InterruptedException {
+        // Rows written before updated_at existed get a full idle window starting now instead of expiring at once.
+        transactionTemplate.execute(status -> cartRepository.backfillUpdatedAt(backfillChunkSize));
+
+        int rows = 0;
+        String cursor = "";
+
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            List<String> userIds = cartRepository.findIdleUserIds(cursor, cutoff, chunkSize);
+            if (userIds.isEmpty()) {
+                break;
+            }
+
+            rows += sweepChunk(userIds, cutoff);
+            cursor = userIds.get(userIds.size() - 1);
+
+            if (userIds.size() < chunkSize) {
+                break;
+            }
+            Thread.sleep(chunkPauseMs);
+        }
+        return rows;
+    }
+
+    int sweepChunk(List<String> userIds, Instant cutoff) {
+        List<String> candidates = redisCartStore.isEnabled() ? withoutLiveRedisCarts(userIds) : userIds;
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        List<String> deletedRows = transactionTemplate.execute(status -> {
+            List<String> deleted = cartRepository.deleteIdleByUserIdIn(candidates, cutoff);
+            if (deleted.isEmpty()) {
+                return deleted;
+            }
+
+            List<String> expiredUserIds = new ArrayList<>(new LinkedHashSet<>(deleted));
+            summaryRepository.deleteByUserIdIn(expiredUserIds);
+            cartOutboxService.record(EVENT_KEY, new CartsExpiredEvent(expiredUserIds, deleted.size(), cutoff,
+                    "Carts expired after " + idleDays + " idle days"));
+            return deleted;
+        });
+
+        if (deletedRows == null || deletedRows.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> expiredUserIds = new LinkedHashSet<>(deletedRows);
+        redisCartStore.evictCarts(expiredUserIds);
+
+        rowsSweptCounter.increment(deletedRows.size());
+        cartsExpiredCounter.increment(expiredUserIds.size());
+        return deletedRows.size();
+    }
+
+    // A cart that lives in Redis is in use even when its SQL rows are old, since changes reach SQL only when flushed.
+    private List<String> withoutLiveRedisCarts(List<String> userIds) {
+        Set<String> live = redisCartStore.findLiveCarts(userIds);
+        return userIds.stream()
+                .filter(userId -> !live.contains(userId))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,159 @@
+package com.nexgen.cart_service.util;
+
+import com.nexgen.cart_service.dto.CartOutboxEntry;
+import com.nexgen.cart_service.entity.CartOutboxEvent;
+import com.nexgen.cart_service.repository.CartOutboxRepository;
+import com.nexgen.cart_service.service.CartOutboxService;
+import com.nexgen.cart_service.service.CartShardRouter;
+import com.nexgen.cart_service.service.RedisCartStore;
+import com.nexgen.cart_service.service.RedisLockService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CartOutboxRelay {
+
+    private static final String RELAY_LOCK_KEY = "cart:outbox:relay-lock";
+
+    private final CartOutboxRepository outboxRepository;
+    private final CartOutboxService outboxService;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final RedisLockService lockService;
+    private final CartShardRouter cartShardRouter;
+    private final RedisCartStore redisCartStore;
+
+    @Value("${cart.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cart.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${cart.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Scheduled(fixedDelayString = "${cart.outbox.relay-interval-ms:500}")
+    public void relay() {
+        // A single active relay keeps per-user event order across replicas.
+        List<String> shards = cartShardRouter.shards();
+        String token = lockService.tryLock(RELAY_LOCK_KEY, Duration.ofMillis(sendTimeoutMs * 2 * maxBatchesPerRun * (shards.size() + 1)));
+        if (token == null) {
+            return;
+        }
+
+        try {
+            // Each shard keeps its own outbox, written in the same transactions as its carts.
+            for (String shard : shards) {
+                CartShardContext.run(shard, this::relayShard);
+            }
+            // Redis-store cart changes append their events to a Redis list instead of a shard's table.
+            if (redisCartStore.isEnabled()) {
+                relayRedis();
+            }
+        } finally {
+            lockService.release(RELAY_LOCK_KEY, token);
+        }
+    }
+
+    private void relayShard() {
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                if (relayBatch() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Outbox relay run failed for shard {}, will retry", CartShardContext.current(), e);
+        }
+    }
+
+    private void relayRedis() {
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                if (relayRedisBatch() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Redis outbox relay run failed, will retry", e);
+        }
+    }
+
+    int relayBatch() {
+        List<CartOutboxEvent> batch = outboxRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>(batch.size());
+        for (CartOutboxEvent event : batch) {
+            try {
+                sends.add(kafkaTemplate.send(event.getTopic(), event.getEventKey(), outboxService.readPayload(event)));
+            } catch (Exception e) {
+                sends.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        // Only the acknowledged prefix is deleted, so a failed send is retried together with everything after it.
+        int acknowledged = acknowledgedPrefix(sends, index -> batch.get(index).getId());
+        List<Long> delivered = batch.subList(0, acknowledged).stream().map(CartOutboxEvent::getId).collect(Collectors.toList());
+
+        if (!delivered.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(delivered);
+        }
+
+        return delivered.size() == batch.size() ? delivered.size() : 0;
+    }
+
+    int relayRedisBatch() {
+        List<String> batch = redisCartStore.peekOutbox(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>(batch.size());
+        for (String entry : batch) {
+            try {
+                CartOutboxEntry outboxEntry = outboxService.readRedisEntry(entry);
+                sends.add(kafkaTemplate.send(outboxEntry.getTopic(), outboxEntry.getEventKey(), outboxService.readEvent(outboxEntry)));
+            } catch (Exception e) {
+                sends.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        // Entries are only appended at the tail, so trimming the acknowledged head never drops an unsent one.
+        int delivered = acknowledgedPrefix(sends, index -> "at Redis outbox position " + index);
+        if (delivered > 0) {
+            redisCartStore.trimOutbox(delivered);
+        }
+
+        return delivered == batch.size() ? delivered : 0;
+    }
+
+    private int acknowledgedPrefix(List<CompletableFuture<SendResult<String, Object>>> sends, IntFunction<Object> describe) {
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                sends.get(i).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                log.warn("Outbox event {} was not acknowledged, stopping batch", describe.apply(i), e);
+                return i;
+            }
+        }
+        return sends.size();
+    }
+}
@@ -0,0 +1,74 @@
+package com.nexgen.cart_service.util;
+
+import com.nexgen.cart_service.service.CartRateLimiterService;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Runs ahead of the Resilience4j aspects so a rejection is not swallowed by their fallback methods.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class CartRateLimitAspect {
+
+    private final CartRateLimiterService rateLimiterService;
+
+    // Number of proxies in front of the service that append to X-Forwarded-For; 0 means clients connect directly.
+    @Value("${cart.ratelimit.ip.trusted-proxies:0}")
+    private int trustedProxies;
+
+    private final ExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    @Around("@annotation(rateLimited)")
+    public Object limit(ProceedingJoinPoint joinPoint, CartRateLimited rateLimited) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(
+                joinPoint.getTarget(), signature.getMethod(), joinPoint.getArgs(), parameterNameDiscoverer);
+
+        Object userId = expressions.computeIfAbsent(rateLimited.key(), parser::parseExpression).getValue(context);
+
+        rateLimiterService.checkLimit(rateLimited.operation(), userId != null ? userId.toString() : null, clientIp());
+        return joinPoint.proceed();
+    }
+
+    String clientIp() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+
+        String remoteAddr = servletAttributes.getRequest().getRemoteAddr();
+        String forwarded = servletAttributes.getRequest().getHeader("X-Forwarded-For");
+        if (trustedProxies <= 0 || forwarded == null || forwarded.isBlank()) {
+            return remoteAddr;
+        }
+
+        // Entries left of what our own proxies appended are client-supplied; the outermost proxy's entry is the peer it saw.
+        String[] hops = forwarded.split(",");
+        if (hops.length < trustedProxies) {
+            return remoteAddr;
+        }
+        return hops[hops.length - trustedProxies].trim();
+    }
+}
@@ -0,0 +1,16 @@
+package com.nexgen.cart_service.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CartRateLimited {
+
+    String operation();
+
+    // SpEL expression over the method arguments that yields the user id, e.g. "#userId".
+    String key();
+}
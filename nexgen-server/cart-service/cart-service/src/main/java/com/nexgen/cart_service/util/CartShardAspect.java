@@ -0,0 +1,60 @@
+package com.nexgen.cart_service.util;
+
+import com.nexgen.cart_service.service.CartShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Pins the call to the user's shard before the transaction opens, so every statement of the call, retries included,
+// uses that shard's pool. It runs outside the Resilience4j aspects: a cart frozen for a shard move is a plain 503,
+// not a failure for the breaker or a fallback that pretends the write happened.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@RequiredArgsConstructor
+public class CartShardAspect {
+
+    private final CartShardRouter cartShardRouter;
+
+    private final ExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    @Around("@annotation(sharded)")
+    public Object route(ProceedingJoinPoint joinPoint, CartSharded sharded) throws Throwable {
+        if (CartShardContext.current() != null) {
+            // Already routed by an outer call.
+            return joinPoint.proceed();
+        }
+
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(
+                joinPoint.getTarget(), signature.getMethod(), joinPoint.getArgs(), parameterNameDiscoverer);
+
+        Object userId = expressions.computeIfAbsent(sharded.key(), parser::parseExpression).getValue(context);
+        if (userId == null) {
+            return joinPoint.proceed();
+        }
+
+        String previous = CartShardContext.enter(cartShardRouter.shardFor(userId.toString()));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            CartShardContext.exit(previous);
+        }
+    }
+}
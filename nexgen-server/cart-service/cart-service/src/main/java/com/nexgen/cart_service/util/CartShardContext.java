@@ -0,0 +1,47 @@
+package com.nexgen.cart_service.util;
+
+import java.util.function.Supplier;
+
+// Shard the current thread's cart statements are routed to; read by the routing datasource when a connection is taken.
+public final class CartShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private CartShardContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    // Returns the shard that was current before, to be handed back to exit.
+    public static String enter(String shard) {
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    public static void exit(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static <T> T call(String shard, Supplier<T> action) {
+        String previous = enter(shard);
+        try {
+            return action.get();
+        } finally {
+            exit(previous);
+        }
+    }
+
+    public static void run(String shard, Runnable action) {
+        call(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,14 @@
+package com.nexgen.cart_service.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CartSharded {
+
+    // SpEL expression over the method arguments that yields the user id the call is routed by, e.g. "#userId".
+    String key();
+}
@@ -0,0 +1,66 @@
+package com.nexgen.cart_service.util;
+
+import com.nexgen.cart_service.service.RedisCartStore;
+import com.nexgen.cart_service.service.RedisLockService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CartWriteBehindScheduler {
+
+    private static final String FLUSH_LOCK_KEY = "cart:dirty:flush-lock";
+
+    private final RedisCartStore redisCartStore;
+    private final RedisLockService lockService;
+
+    @Value("${cart.store.redis.flush-batch-size:200}")
+    private int flushBatchSize;
+
+    @Value("${cart.store.redis.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${cart.store.redis.flush-lock-ttl-ms:60000}")
+    private long flushLockTtlMs;
+
+    @Scheduled(fixedDelayString = "${cart.store.redis.flush-interval-ms:2000}")
+    public void flushDirtyCarts() {
+        if (!redisCartStore.isEnabled()) {
+            return;
+        }
+
+        String token = lockService.tryLock(FLUSH_LOCK_KEY, Duration.ofMillis(flushLockTtlMs));
+        if (token == null) {
+            return;
+        }
+
+        try {
+            // With the lock held no other flush is in progress, so anything still being flushed was stranded by a crash.
+            long recovered = redisCartStore.recoverStrandedDirtyCarts();
+            if (recovered > 0) {
+                log.warn("Recovered {} dirty carts from an interrupted flush", recovered);
+            }
+
+            int flushed = 0;
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                int count = redisCartStore.flushDirtyCarts(flushBatchSize);
+                flushed += count;
+                if (count < flushBatchSize) {
+                    break;
+                }
+            }
+
+            if (flushed > 0) {
+                log.debug("Flushed {} Redis carts to the database", flushed);
+            }
+        } finally {
+            lockService.release(FLUSH_LOCK_KEY, token);
+        }
+    }
+}
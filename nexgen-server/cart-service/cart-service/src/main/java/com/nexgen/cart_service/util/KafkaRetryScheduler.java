@@ -1,81 +1,218 @@
 package com.nexgen.cart_service.util;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.nexgen.cart_service.dto.AddToCartEvent;
-import com.nexgen.cart_service.dto.CartClearedEvent;
-import com.nexgen.cart_service.dto.CheckoutEvent;
-import com.nexgen.cart_service.dto.RemoveFromCartEvent;
+import com.nexgen.cart_service.service.CartEventProducerService;
 import com.nexgen.cart_service.service.KafkaFallbackService;
+import com.nexgen.cart_service.service.RedisLockService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class KafkaRetryScheduler {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private static final String REPLAY_LOCK_KEY = "FAILED_KAFKA_EVENTS:replay-lock";
+
+    private final CartEventProducerService cartEventProducer;
     private final KafkaFallbackService fallbackService;
-    private final ObjectMapper objectMapper;
+    private final RedisLockService lockService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cart.kafka.replay.min-batch-size:50}")
+    private int minBatchSize;
+
+    @Value("${cart.kafka.replay.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${cart.kafka.replay.max-run-ms:30000}")
+    private long maxRunMs;
 
-    @Value("${topic.cart-cleared}")
-    private String cartClearedTopic;
+    @Value("${cart.kafka.replay.ack-timeout-ms:15000}")
+    private long ackTimeoutMs;
 
-    @Value("${topic.cart-item-added}")
-    private String cartAddedTopic;
+    @Value("${cart.kafka.replay.initial-backoff-ms:5000}")
+    private long initialBackoffMs;
 
-    @Value("${topic.cart-item-removed}")
-    private String cartRemovedTopic;
+    @Value("${cart.kafka.replay.max-backoff-ms:300000}")
+    private long maxBackoffMs;
 
-    @Value("${topic.cart-checkout}")
-    private String cartCheckoutTopic;
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicReference<Double> throughput = new AtomicReference<>(0.0);
+    private Counter replayedCounter;
+
+    private int consecutiveFailures;
+    private long nextAttemptAt;
+
+    @PostConstruct
+    public void initMetrics() {
+        Gauge.builder("cart.kafka.replay.backlog", backlog, AtomicLong::get)
+                .description("Events waiting in the Redis fallback queue")
+                .register(meterRegistry);
+        Gauge.builder("cart.kafka.replay.throughput", throughput, AtomicReference::get)
+                .description("Events per second replayed during the last run")
+                .register(meterRegistry);
+        this.replayedCounter = meterRegistry.counter("cart.kafka.replay.events");
+    }
 
-    @Scheduled(fixedDelay = 60000)
+    @Scheduled(fixedDelayString = "${cart.kafka.replay.interval-ms:5000}")
     public void retryFromRedisQueue() {
-        List<String> events = fallbackService.getFailedEvents(10);
-        int successfullyProcessed = 0;
+        long start = System.currentTimeMillis();
+        if (start < nextAttemptAt) {
+            return;
+        }
 
-        for (String composite : events) {
-            try {
-                String[] parts = composite.split("::", 2);
-                if (parts.length != 2) continue;
-
-                String type = parts[0];
-                String json = parts[1];
-
-                switch (type) {
-                    case "AddToCartEvent" -> {
-                        AddToCartEvent event = objectMapper.readValue(json, AddToCartEvent.class);
-                        kafkaTemplate.send(cartAddedTopic, event.getUserId(), event);
-                    }
-                    case "RemoveFromCartEvent" -> {
-                        RemoveFromCartEvent event = objectMapper.readValue(json, RemoveFromCartEvent.class);
-                        kafkaTemplate.send(cartRemovedTopic, event.getUserId(), event);
-                    }
-                    case "CartClearedEvent" -> {
-                        CartClearedEvent event = objectMapper.readValue(json, CartClearedEvent.class);
-                        kafkaTemplate.send(cartClearedTopic, event.getUserId(), event);
-                    }
-                    case "CheckoutEvent" -> {
-                        CheckoutEvent event = objectMapper.readValue(json, CheckoutEvent.class);
-                        kafkaTemplate.send(cartCheckoutTopic, event.getUserId(), event);
-                    }
-                    default -> log.warn("Unknown event type: {}", type);
+        String token = lockService.tryLock(REPLAY_LOCK_KEY, lockTtl());
+        if (token == null) {
+            return;
+        }
+
+        int replayed = 0;
+        boolean failed = false;
+
+        try {
+            // Holding the lock means no other replica is mid-replay, so anything still in processing was stranded.
+            long recovered = fallbackService.recoverStranded();
+            if (recovered > 0) {
+                log.warn("Recovered {} stranded events from an interrupted replay", recovered);
+            }
+
+            long remaining = fallbackService.backlogSize();
+            backlog.set(remaining);
+
+            while (remaining > 0 && System.currentTimeMillis() - start < maxRunMs) {
+                List<String> batch = fallbackService.claimBatch(batchSizeFor(remaining));
+                if (batch.isEmpty()) {
+                    break;
                 }
 
-                successfullyProcessed++;
+                int acknowledged = replay(batch, token);
+                replayed += acknowledged;
+
+                if (acknowledged < batch.size()) {
+                    failed = true;
+                    break;
+                }
+
+                remaining = Math.max(0, remaining - batch.size());
+                backlog.set(remaining);
+            }
+        } catch (Exception e) {
+            log.warn("Replay run failed, will try again later", e);
+            failed = true;
+        } finally {
+            lockService.release(REPLAY_LOCK_KEY, token);
+        }
+
+        backlog.set(fallbackService.backlogSize());
+        long elapsedMs = Math.max(1, System.currentTimeMillis() - start);
+        throughput.set(replayed * 1000.0 / elapsedMs);
+        replayedCounter.increment(replayed);
+
+        scheduleNextAttempt(failed);
+    }
+
+    // One ack deadline for the whole batch, and no more sends once one throws (it has usually blocked for
+    // max.block.ms) or the deadline passes, keep a batch well inside the lock TTL. A lost lock means another replica
+    // has already re-queued this batch as stranded, so nothing is acknowledged or re-queued here.
+    private int replay(List<String> batch, String token) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + ackTimeoutMs;
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>(batch.size());
+        boolean sending = true;
+
+        for (String composite : batch) {
+            if (!sending || System.currentTimeMillis() >= deadline) {
+                sends.add(CompletableFuture.failedFuture(new TimeoutException("Not sent before the replay deadline")));
+                continue;
+            }
+
+            Object event;
+            try {
+                event = fallbackService.readEvent(composite);
             } catch (Exception e) {
-                log.warn("Retry failed, will try again later", e);
-                break;
+                // Unreadable entries can never succeed; acknowledging them keeps them from blocking the queue.
+                log.error("Dropping unreadable fallback event: {}", composite, e);
+                sends.add(null);
+                continue;
             }
+
+            try {
+                sends.add(cartEventProducer.sendDirect(event));
+            } catch (Exception e) {
+                sending = false;
+                sends.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        try {
+            CompletableFuture.allOf(sends.stream().filter(Objects::nonNull).toArray(CompletableFuture[]::new))
+                    .get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Failed or late sends are told apart one by one below.
+        }
+
+        List<String> acknowledged = new ArrayList<>(batch.size());
+        List<String> unacknowledged = new ArrayList<>();
+
+        for (int i = 0; i < batch.size(); i++) {
+            CompletableFuture<SendResult<String, Object>> send = sends.get(i);
+            if (send == null || (send.isDone() && !send.isCompletedExceptionally())) {
+                acknowledged.add(batch.get(i));
+            } else {
+                unacknowledged.add(batch.get(i));
+            }
+        }
+
+        if (!lockService.extend(REPLAY_LOCK_KEY, token, lockTtl())) {
+            throw new IllegalStateException("Replay lock expired mid-run, leaving " + batch.size() + " events to its new owner");
+        }
+
+        fallbackService.acknowledge(acknowledged);
+        fallbackService.requeue(unacknowledged);
+
+        if (!unacknowledged.isEmpty()) {
+            log.warn("{} of {} replayed events were not acknowledged, requeued", unacknowledged.size(), batch.size());
+        }
+
+        return acknowledged.size();
+    }
+
+    private Duration lockTtl() {
+        return Duration.ofMillis(maxRunMs + ackTimeoutMs);
+    }
+
+    private int batchSizeFor(long remaining) {
+        long adaptive = remaining / 10;
+        return (int) Math.max(minBatchSize, Math.min(maxBatchSize, adaptive));
+    }
+
+    private void scheduleNextAttempt(boolean failed) {
+        if (!failed) {
+            consecutiveFailures = 0;
+            nextAttemptAt = 0;
+            return;
         }
 
-        fallbackService.removeProcessedEvents(successfullyProcessed);
+        consecutiveFailures++;
+        long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(consecutiveFailures - 1, 16));
+        nextAttemptAt = System.currentTimeMillis() + backoff;
     }
 }
@@ -0,0 +1,96 @@
+package com.nexgen.cart_service.util;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Sliding-window budget for one Resilience4j retry instance: retries may be at most a fixed share of first attempts
+// seen over the last windowSeconds, with a small floor so a quiet service can still retry at all.
+// Counters are per-second buckets of LongAdders; a bucket is recycled by CAS on its second, so nothing here locks.
+public class RetryBudget {
+
+    @Getter
+    private final String instance;
+    private final double ratio;
+    private final int minRetriesPerSecond;
+    private final int windowSeconds;
+    private final LongSupplier clock;
+
+    private final AtomicLong[] bucketSeconds;
+    private final LongAdder[] attempts;
+    private final LongAdder[] retries;
+
+    public RetryBudget(String instance, double ratio, int minRetriesPerSecond, int windowSeconds) {
+        this(instance, ratio, minRetriesPerSecond, windowSeconds, () -> System.currentTimeMillis() / 1000);
+    }
+
+    RetryBudget(String instance, double ratio, int minRetriesPerSecond, int windowSeconds, LongSupplier clock) {
+        this.instance = instance;
+        this.ratio = ratio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.windowSeconds = windowSeconds;
+        this.clock = clock;
+        this.bucketSeconds = new AtomicLong[windowSeconds];
+        this.attempts = new LongAdder[windowSeconds];
+        this.retries = new LongAdder[windowSeconds];
+        for (int i = 0; i < windowSeconds; i++) {
+            bucketSeconds[i] = new AtomicLong(-1);
+            attempts[i] = new LongAdder();
+            retries[i] = new LongAdder();
+        }
+    }
+
+    public void recordAttempt() {
+        attempts[bucket()].increment();
+    }
+
+    public void recordRetry() {
+        retries[bucket()].increment();
+    }
+
+    public boolean canRetry() {
+        return retriesInWindow() < allowedRetries();
+    }
+
+    public long attemptsInWindow() {
+        return sum(attempts);
+    }
+
+    public long retriesInWindow() {
+        return sum(retries);
+    }
+
+    public long remaining() {
+        return Math.max(0, allowedRetries() - retriesInWindow());
+    }
+
+    private long allowedRetries() {
+        return Math.max((long) minRetriesPerSecond * windowSeconds, (long) (ratio * attemptsInWindow()));
+    }
+
+    private int bucket() {
+        long now = clock.getAsLong();
+        int index = (int) (now % windowSeconds);
+        long seen = bucketSeconds[index].get();
+        if (seen != now && bucketSeconds[index].compareAndSet(seen, now)) {
+            // Counts landing between the CAS and the resets are lost; the budget is an estimate, not a ledger.
+            attempts[index].reset();
+            retries[index].reset();
+        }
+        return index;
+    }
+
+    private long sum(LongAdder[] counters) {
+        long now = clock.getAsLong();
+        long total = 0;
+        for (int i = 0; i < windowSeconds; i++) {
+            long second = bucketSeconds[i].get();
+            if (second >= 0 && now - second < windowSeconds) {
+                total += counters[i].sum();
+            }
+        }
+        return total;
+    }
+}
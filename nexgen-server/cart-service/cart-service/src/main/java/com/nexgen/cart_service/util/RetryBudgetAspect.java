@@ -0,0 +1,65 @@
+package com.nexgen.cart_service.util;
+
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Counts first attempts for each budgeted retry instance. It sits outside the Resilience4j retry aspect, so a call
+// that is retried still counts once; the retries themselves are counted from the instance's retry events.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class RetryBudgetAspect {
+
+    private final List<RetryBudget> retryBudgets;
+    private final RetryRegistry retryRegistry;
+    private final MeterRegistry meterRegistry;
+
+    private Map<String, RetryBudget> budgets;
+
+    @PostConstruct
+    public void init() {
+        this.budgets = retryBudgets.stream().collect(Collectors.toMap(RetryBudget::getInstance, Function.identity()));
+
+        budgets.values().forEach(budget -> {
+            retryRegistry.retry(budget.getInstance()).getEventPublisher().onRetry(event -> budget.recordRetry());
+
+            Gauge.builder("cart.retry.budget.attempts", budget, RetryBudget::attemptsInWindow)
+                    .tag("instance", budget.getInstance())
+                    .description("First attempts in the retry budget window")
+                    .register(meterRegistry);
+            Gauge.builder("cart.retry.budget.retries", budget, RetryBudget::retriesInWindow)
+                    .tag("instance", budget.getInstance())
+                    .description("Retries in the retry budget window")
+                    .register(meterRegistry);
+            Gauge.builder("cart.retry.budget.remaining", budget, RetryBudget::remaining)
+                    .tag("instance", budget.getInstance())
+                    .description("Retries still allowed in the current window")
+                    .register(meterRegistry);
+        });
+    }
+
+    @Around("@annotation(retry)")
+    public Object countAttempt(ProceedingJoinPoint joinPoint, Retry retry) throws Throwable {
+        RetryBudget budget = budgets.get(retry.name());
+        if (budget != null) {
+            budget.recordAttempt();
+        }
+        return joinPoint.proceed();
+    }
+}
@@ -0,0 +1,27 @@
+-- KEYS[1] = cart hash, KEYS[2] = dirty cart set, KEYS[3] = outbox list
+-- ARGV[1] = userId, ARGV[2] = ttl seconds, ARGV[3] = productId, ARGV[4] = quantity, ARGV[5] = amount
+-- ARGV[6] = outbox entry whose event gets the line's new quantity and price ('' records nothing)
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return {0}
+end
+
+local quantity = redis.call('HINCRBY', KEYS[1], 'q:' .. ARGV[3], ARGV[4])
+local amount = redis.call('HINCRBYFLOAT', KEYS[1], 'p:' .. ARGV[3], ARGV[5])
+
+if quantity == tonumber(ARGV[4]) then
+    redis.call('HINCRBY', KEYS[1], '_count', 1)
+end
+redis.call('HINCRBY', KEYS[1], '_quantity', ARGV[4])
+redis.call('HINCRBYFLOAT', KEYS[1], '_amount', ARGV[5])
+
+redis.call('EXPIRE', KEYS[1], ARGV[2])
+redis.call('SADD', KEYS[2], ARGV[1])
+
+if ARGV[6] ~= '' then
+    local entry = cjson.decode(ARGV[6])
+    entry.event.quantity = quantity
+    entry.event.price = tonumber(amount)
+    redis.call('RPUSH', KEYS[3], cjson.encode(entry))
+end
+
+return {1, quantity, amount}
@@ -0,0 +1,52 @@
+-- KEYS[1] = cart hash, KEYS[2] = dirty cart set, KEYS[3] = outbox list
+-- ARGV[1] = userId, ARGV[2] = ttl seconds, ARGV[3] = outbox entry ('' records nothing)
+-- then per product: productId, expected quantity, expected amount, new quantity, new amount
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return 0
+end
+
+-- Every line must still hold what the batch was computed from; otherwise nothing is applied.
+for i = 4, #ARGV, 5 do
+    local currentQuantity = tonumber(redis.call('HGET', KEYS[1], 'q:' .. ARGV[i]) or '0')
+    local currentAmount = tonumber(redis.call('HGET', KEYS[1], 'p:' .. ARGV[i]) or '0')
+    if currentQuantity ~= tonumber(ARGV[i + 1]) or currentAmount ~= tonumber(ARGV[i + 2]) then
+        return -3
+    end
+end
+
+local countDelta = 0
+local quantityDelta = 0
+local amountDelta = 0
+
+for i = 4, #ARGV, 5 do
+    local quantityField = 'q:' .. ARGV[i]
+    local amountField = 'p:' .. ARGV[i]
+    local currentQuantity = tonumber(ARGV[i + 1])
+    local currentAmount = tonumber(ARGV[i + 2])
+    local quantity = tonumber(ARGV[i + 3])
+    local amount = tonumber(ARGV[i + 4])
+
+    if quantity > 0 then
+        redis.call('HSET', KEYS[1], quantityField, quantity, amountField, ARGV[i + 4])
+    else
+        redis.call('HDEL', KEYS[1], quantityField, amountField)
+        amount = 0
+    end
+
+    countDelta = countDelta + (quantity > 0 and 1 or 0) - (currentQuantity > 0 and 1 or 0)
+    quantityDelta = quantityDelta + quantity - currentQuantity
+    amountDelta = amountDelta + amount - currentAmount
+end
+
+redis.call('HINCRBY', KEYS[1], '_count', countDelta)
+redis.call('HINCRBY', KEYS[1], '_quantity', quantityDelta)
+redis.call('HINCRBYFLOAT', KEYS[1], '_amount', tostring(amountDelta))
+
+redis.call('EXPIRE', KEYS[1], ARGV[2])
+redis.call('SADD', KEYS[2], ARGV[1])
+
+if ARGV[3] ~= '' then
+    redis.call('RPUSH', KEYS[3], ARGV[3])
+end
+
+return 1
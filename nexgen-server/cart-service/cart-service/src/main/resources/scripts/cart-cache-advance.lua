@@ -0,0 +1,11 @@
+-- KEYS[1] = cart cache version key
+-- ARGV[1] = version of the committed change
+-- ARGV[2] = key ttl in ms
+local current = tonumber(redis.call('GET', KEYS[1]) or '0')
+local version = tonumber(ARGV[1])
+if version > current then
+    redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+    return version
+end
+redis.call('PEXPIRE', KEYS[1], ARGV[2])
+return current
@@ -0,0 +1,5 @@
+-- KEYS[1] = cart cache version counter
+-- ARGV[1] = counter ttl in ms
+local version = redis.call('INCR', KEYS[1])
+redis.call('PEXPIRE', KEYS[1], ARGV[1])
+return version
@@ -0,0 +1,9 @@
+-- KEYS[1] = dirty cart set, KEYS[2] = dirty carts being flushed
+-- ARGV[1] = maximum number of carts to claim
+local userIds = redis.call('SPOP', KEYS[1], ARGV[1])
+
+if #userIds > 0 then
+    redis.call('SADD', KEYS[2], unpack(userIds))
+end
+
+return userIds
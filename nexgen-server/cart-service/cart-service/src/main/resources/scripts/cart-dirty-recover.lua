@@ -0,0 +1,10 @@
+-- KEYS[1] = dirty cart set, KEYS[2] = dirty carts being flushed
+-- Moves carts left behind by a flush that never finished back to the dirty set.
+local userIds = redis.call('SMEMBERS', KEYS[2])
+
+if #userIds > 0 then
+    redis.call('SADD', KEYS[1], unpack(userIds))
+    redis.call('DEL', KEYS[2])
+end
+
+return #userIds
@@ -0,0 +1,6 @@
+-- KEYS[1] = dirty cart set, KEYS[2] = dirty carts being flushed
+-- ARGV = carts whose flush did not commit
+redis.call('SADD', KEYS[1], unpack(ARGV))
+redis.call('SREM', KEYS[2], unpack(ARGV))
+
+return #ARGV
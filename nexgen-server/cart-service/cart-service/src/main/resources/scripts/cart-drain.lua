@@ -0,0 +1,53 @@
+-- KEYS[1] = cart hash, KEYS[2] = dirty cart set, KEYS[3] = outbox list
+-- ARGV[1] = userId, ARGV[2] = ttl seconds
+-- ARGV[3] = clear or checkout outbox entry whose event gets the drained lines ('' records nothing)
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return {0}
+end
+
+local entries = redis.call('HGETALL', KEYS[1])
+
+redis.call('DEL', KEYS[1])
+redis.call('HSET', KEYS[1], '_loaded', '1')
+redis.call('EXPIRE', KEYS[1], ARGV[2])
+redis.call('SADD', KEYS[2], ARGV[1])
+
+local fields = {}
+for i = 1, #entries, 2 do
+    fields[entries[i]] = entries[i + 1]
+end
+
+local items = {}
+local productIds = {}
+local totalQuantity = 0
+local totalAmount = 0
+for i = 1, #entries, 2 do
+    if string.sub(entries[i], 1, 2) == 'q:' then
+        local productId = string.sub(entries[i], 3)
+        local quantity = tonumber(entries[i + 1])
+        local amount = tonumber(fields['p:' .. productId] or '0')
+        items[#items + 1] = {productId = productId, quantity = quantity, amount = amount}
+        productIds[#productIds + 1] = productId
+        totalQuantity = totalQuantity + quantity
+        totalAmount = totalAmount + amount
+    end
+end
+
+-- An empty cart records nothing; the caller rejects the request.
+if ARGV[3] ~= '' and #items > 0 then
+    local entry = cjson.decode(ARGV[3])
+    if entry.eventType == 'CheckoutEvent' then
+        entry.event.productIds = productIds
+        entry.event.totalAmount = totalAmount
+    else
+        entry.event.quantity = totalQuantity
+    end
+    entry.event.items = items
+    redis.call('RPUSH', KEYS[3], cjson.encode(entry))
+end
+
+local result = {1}
+for i = 1, #entries do
+    result[#result + 1] = entries[i]
+end
+return result
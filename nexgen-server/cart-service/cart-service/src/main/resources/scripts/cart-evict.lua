@@ -0,0 +1,13 @@
+-- KEYS[1] = dirty cart set, KEYS[2] = dirty carts being flushed
+-- then per user: KEYS[n] = cached item list, KEYS[n + 1] = cart hash; ARGV = the matching userIds
+-- A hash with unflushed changes is kept; the next flush writes it back over the expired rows.
+local evicted = 0
+for i = 1, #ARGV do
+    local userId = ARGV[i]
+    redis.call('DEL', KEYS[2 * i + 1])
+    if redis.call('SISMEMBER', KEYS[1], userId) == 0 and redis.call('SISMEMBER', KEYS[2], userId) == 0 then
+        evicted = evicted + redis.call('DEL', KEYS[2 * i + 2])
+    end
+end
+
+return evicted
@@ -0,0 +1,62 @@
+-- KEYS[1] = user cart hash, KEYS[2] = guest cart hash, KEYS[3] = dirty cart set, KEYS[4] = outbox list
+-- ARGV[1] = userId, ARGV[2] = guestId, ARGV[3] = ttl seconds, ARGV[4] = conflict policy
+-- ARGV[5] = outbox entry whose event gets the merged lines ('' records nothing)
+if redis.call('EXISTS', KEYS[1]) == 0 or redis.call('EXISTS', KEYS[2]) == 0 then
+    return {0}
+end
+
+local policy = ARGV[4]
+local guest = {}
+local entries = redis.call('HGETALL', KEYS[2])
+for i = 1, #entries, 2 do
+    guest[entries[i]] = entries[i + 1]
+end
+
+local result = {1}
+local items = {}
+
+for field, value in pairs(guest) do
+    if string.sub(field, 1, 2) == 'q:' then
+        local productId = string.sub(field, 3)
+        local amountField = 'p:' .. productId
+        local guestQuantity = tonumber(value)
+        local guestAmount = tonumber(guest[amountField] or '0')
+        local userQuantity = tonumber(redis.call('HGET', KEYS[1], field) or '0')
+        local userAmount = tonumber(redis.call('HGET', KEYS[1], amountField) or '0')
+
+        local quantity, amount = userQuantity, userAmount
+        if userQuantity == 0 or policy == 'KEEP_GUEST' or (policy == 'MAX' and guestQuantity > userQuantity) then
+            quantity, amount = guestQuantity, guestAmount
+        elseif policy == 'SUM' then
+            quantity, amount = userQuantity + guestQuantity, userAmount + guestAmount
+        end
+
+        if quantity ~= userQuantity or amount ~= userAmount then
+            redis.call('HSET', KEYS[1], field, quantity, amountField, tostring(amount))
+            if userQuantity == 0 then
+                redis.call('HINCRBY', KEYS[1], '_count', 1)
+            end
+            redis.call('HINCRBY', KEYS[1], '_quantity', quantity - userQuantity)
+            redis.call('HINCRBYFLOAT', KEYS[1], '_amount', tostring(amount - userAmount))
+
+            result[#result + 1] = productId
+            result[#result + 1] = quantity
+            result[#result + 1] = tostring(amount)
+            items[#items + 1] = {productId = productId, quantity = quantity, amount = amount}
+        end
+    end
+end
+
+redis.call('DEL', KEYS[2])
+redis.call('HSET', KEYS[2], '_loaded', '1')
+redis.call('EXPIRE', KEYS[1], ARGV[3])
+redis.call('EXPIRE', KEYS[2], ARGV[3])
+redis.call('SADD', KEYS[3], ARGV[1], ARGV[2])
+
+if ARGV[5] ~= '' and #items > 0 then
+    local entry = cjson.decode(ARGV[5])
+    entry.event.items = items
+    redis.call('RPUSH', KEYS[4], cjson.encode(entry))
+end
+
+return result
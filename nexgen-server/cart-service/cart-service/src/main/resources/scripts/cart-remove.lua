@@ -0,0 +1,41 @@
+-- KEYS[1] = cart hash, KEYS[2] = dirty cart set, KEYS[3] = outbox list
+-- ARGV[1] = userId, ARGV[2] = ttl seconds, ARGV[3] = productId, ARGV[4] = quantity to remove
+-- ARGV[5] = outbox entry ('' records nothing)
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return {0}
+end
+
+local quantityField = 'q:' .. ARGV[3]
+local amountField = 'p:' .. ARGV[3]
+local quantity = tonumber(redis.call('HGET', KEYS[1], quantityField) or '0')
+
+if quantity == 0 then
+    return {-1}
+end
+
+local toRemove = tonumber(ARGV[4])
+if quantity < toRemove then
+    return {-2}
+end
+
+local amount = tonumber(redis.call('HGET', KEYS[1], amountField) or '0')
+local remaining = quantity - toRemove
+local remainingAmount = amount - (toRemove * (amount / quantity))
+
+if remaining > 0 then
+    redis.call('HSET', KEYS[1], quantityField, remaining, amountField, tostring(remainingAmount))
+else
+    redis.call('HDEL', KEYS[1], quantityField, amountField)
+    redis.call('HINCRBY', KEYS[1], '_count', -1)
+end
+redis.call('HINCRBY', KEYS[1], '_quantity', -toRemove)
+redis.call('HINCRBYFLOAT', KEYS[1], '_amount', tostring(remainingAmount - amount))
+
+redis.call('EXPIRE', KEYS[1], ARGV[2])
+redis.call('SADD', KEYS[2], ARGV[1])
+
+if ARGV[5] ~= '' then
+    redis.call('RPUSH', KEYS[3], ARGV[5])
+end
+
+return {1, remaining, tostring(remainingAmount), tostring(amount - remainingAmount)}
@@ -0,0 +1,10 @@
+-- KEYS[1] = cart hash
+-- ARGV[1] = ttl seconds, ARGV[2..n] = field/value pairs, always including the '_loaded' marker
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    return 0
+end
+
+redis.call('HSET', KEYS[1], unpack(ARGV, 2))
+redis.call('EXPIRE', KEYS[1], ARGV[1])
+
+return 1
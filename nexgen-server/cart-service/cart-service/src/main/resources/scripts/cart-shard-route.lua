@@ -0,0 +1,8 @@
+-- KEYS[1] = shard route hash, KEYS[2] = routing epoch
+-- ARGV[1] = route field, ARGV[2] = route json, empty to drop the route
+if ARGV[2] == '' then
+    redis.call('HDEL', KEYS[1], ARGV[1])
+else
+    redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+end
+return redis.call('INCR', KEYS[2])
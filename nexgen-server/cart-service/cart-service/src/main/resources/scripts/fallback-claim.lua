@@ -0,0 +1,10 @@
+-- KEYS[1] = failed event queue, KEYS[2] = processing list
+-- ARGV[1] = maximum number of events to claim
+local items = redis.call('LRANGE', KEYS[1], 0, tonumber(ARGV[1]) - 1)
+
+if #items > 0 then
+    redis.call('LTRIM', KEYS[1], #items, -1)
+    redis.call('RPUSH', KEYS[2], unpack(items))
+end
+
+return items
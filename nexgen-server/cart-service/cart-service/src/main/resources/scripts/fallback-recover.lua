@@ -0,0 +1,12 @@
+-- KEYS[1] = failed event queue, KEYS[2] = processing list
+-- Moves events left behind by a replay that never finished back to the head of the queue.
+local items = redis.call('LRANGE', KEYS[2], 0, -1)
+
+if #items > 0 then
+    redis.call('DEL', KEYS[2])
+    for i = #items, 1, -1 do
+        redis.call('LPUSH', KEYS[1], items[i])
+    end
+end
+
+return #items
@@ -0,0 +1,8 @@
+-- KEYS[1] = failed event queue, KEYS[2] = processing list
+-- ARGV = events to put back at the head of the queue, in their original order
+for i = #ARGV, 1, -1 do
+    redis.call('LREM', KEYS[2], 1, ARGV[i])
+    redis.call('LPUSH', KEYS[1], ARGV[i])
+end
+
+return #ARGV
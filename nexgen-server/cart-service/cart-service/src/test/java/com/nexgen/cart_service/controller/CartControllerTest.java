@@ -3,8 +3,11 @@ package com.nexgen.cart_service.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nexgen.cart_service.dto.*;
 import com.nexgen.cart_service.entity.CartItem;
+import com.nexgen.cart_service.exception.PriceMismatchException;
 import com.nexgen.cart_service.service.CartEventProducerService;
 import com.nexgen.cart_service.service.CartService;
+import com.nexgen.cart_service.service.CartStreamService;
+import com.nexgen.cart_service.service.ProductPriceClient;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +16,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -37,6 +41,12 @@ public class CartControllerTest {
     @MockitoBean
     private CartEventProducerService cartEventProducer;
 
+    @MockitoBean
+    private CartStreamService cartStreamService;
+
+    @MockitoBean
+    private ProductPriceClient productPriceClient;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -44,12 +54,25 @@ public class CartControllerTest {
     void testGetCartByUser() throws Exception {
         String userId = "user1";
         CartItemResponse response = new CartItemResponse(userId, "product1", 2, 10.0);
-        Mockito.when(cartService.getCartByUser(userId)).thenReturn(List.of(response));
+        Mockito.when(cartService.getCartByUser(userId)).thenReturn(new CartView(List.of(response), false));
 
         mockMvc.perform(get("/api/v1/cart/{userId}", userId))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].productId").value("product1"))
-                .andExpect(jsonPath("$[0].quantity").value(2));
+                .andExpect(jsonPath("$.data[0].productId").value("product1"))
+                .andExpect(jsonPath("$.data[0].quantity").value(2))
+                .andExpect(jsonPath("$.stale").value(false));
+    }
+
+    @Test
+    void testGetCartByUser_staleCopy() throws Exception {
+        String userId = "user1";
+        CartItemResponse response = new CartItemResponse(userId, "product1", 2, 10.0);
+        Mockito.when(cartService.getCartByUser(userId)).thenReturn(new CartView(List.of(response), true));
+
+        mockMvc.perform(get("/api/v1/cart/{userId}", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].productId").value("product1"))
+                .andExpect(jsonPath("$.stale").value(true));
     }
 
     @Test
@@ -69,6 +92,22 @@ public class CartControllerTest {
                 .andExpect(jsonPath("$.quantity").value(2));
     }
 
+    @Test
+    void testAddItemToCart_priceMismatch_shouldRejectBeforeTouchingCart() throws Exception {
+        String userId = "user1";
+        CartItemRequest request = new CartItemRequest("product1", 2, 1.0);
+
+        Mockito.doThrow(new PriceMismatchException("Price for product product1 is 5.0, not 1.0."))
+                .when(productPriceClient).validateItem(any(CartItemRequest.class));
+
+        mockMvc.perform(post("/api/v1/cart/{userId}/add", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+
+        Mockito.verifyNoInteractions(cartService);
+    }
+
     @Test
     void testRemoveItemQuantity() throws Exception {
         String userId = "user1";
@@ -99,7 +138,7 @@ public class CartControllerTest {
 
     @Test
     void testCheckout() throws Exception {
-        CheckoutRequest request = new CheckoutRequest("user1", "CARD");
+        CheckoutRequest request = new CheckoutRequest("user1", "CARD", null);
         CheckoutResponse response = new CheckoutResponse("user1", "success", 30.0, new ArrayList(Arrays.asList("p1", "p2")));
 
         Mockito.when(cartService.checkout(any(CheckoutRequest.class))).thenReturn(response);
@@ -115,4 +154,59 @@ public class CartControllerTest {
                 .andExpect(jsonPath("$.userId").value("user1"))
                 .andExpect(jsonPath("$.totalAmount").value(30.0));
     }
+
+    @Test
+    void testApplyBatch() throws Exception {
+        String userId = "user1";
+        CartBatchRequest request = new CartBatchRequest(List.of(
+                new CartBatchOperation(CartOperationType.ADD, "product1", 2, 5.0)
+        ));
+        CartBatchResponse response = new CartBatchResponse(
+                List.of(new CartItemResponse(userId, "product1", 2, 10.0)),
+                List.of(new CartItemDelta("product1", 2, 10.0))
+        );
+
+        Mockito.when(cartService.applyBatch(eq(userId), any(CartBatchRequest.class))).thenReturn(response);
+
+        mockMvc.perform(post("/api/v1/cart/{userId}/items:batch", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].productId").value("product1"));
+    }
+
+    @Test
+    void testGetSummary() throws Exception {
+        String userId = "user1";
+        CartSummaryResponse summary = new CartSummaryResponse(userId, 2, 5, 50.0);
+
+        Mockito.when(cartService.getSummary(userId)).thenReturn(summary);
+
+        mockMvc.perform(get("/api/v1/cart/{userId}/summary", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.itemCount").value(2))
+                .andExpect(jsonPath("$.data.totalQuantity").value(5))
+                .andExpect(jsonPath("$.data.totalAmount").value(50.0));
+    }
+
+    @Test
+    void testStreamCart() throws Exception {
+        String userId = "user1";
+        Mockito.when(cartStreamService.subscribe(userId)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/v1/cart/{userId}/stream", userId).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void testMergeGuestCart() throws Exception {
+        String userId = "user1";
+        CartItemResponse response = new CartItemResponse(userId, "product1", 3, 15.0);
+
+        Mockito.when(cartService.mergeGuestCart(userId, "guest1", CartMergePolicy.SUM)).thenReturn(List.of(response));
+
+        mockMvc.perform(post("/api/v1/cart/{userId}/merge/{guestId}", userId, "guest1").param("policy", "SUM"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].quantity").value(3));
+    }
 }
@@ -0,0 +1,224 @@
+package com.nexgen.cart_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexgen.cart_service.dto.CartItemResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartCacheServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private RedisCartStore redisCartStore;
+    @Mock
+    private RedisOperations<String, String> operations;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CartCacheService cacheService;
+
+    @BeforeEach
+    void setUp() {
+        cacheService = new CartCacheService(redisTemplate, redisCartStore, objectMapper, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cacheService, "ttlMinutes", 10L);
+        ReflectionTestUtils.setField(cacheService, "shadowTtlHours", 72L);
+        cacheService.initCounters();
+    }
+
+    @Test
+    void testPutIfCurrent_versionMovedOn_shouldNotCacheOlderLoad() {
+        stubSession();
+        when(operations.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("cart:version:user1")).thenReturn("2");
+
+        cacheService.putIfCurrent("user1", 1, List.of(new CartItemResponse("user1", "prod1", 1, 10.0)));
+
+        verify(operations, never()).multi();
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void testPutIfCurrent_currentVersion_shouldWriteShadowInsideTheCheckedWrite() throws Exception {
+        stubSession();
+        when(operations.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("cart:version:user1")).thenReturn("1");
+        when(operations.hasKey("cart::user1")).thenReturn(false);
+
+        List<CartItemResponse> items = List.of(new CartItemResponse("user1", "prod1", 1, 10.0));
+        cacheService.putIfCurrent("user1", 1, items);
+
+        String json = objectMapper.writeValueAsString(new CartCacheEntry(1, items));
+        InOrder inOrder = inOrder(operations, valueOperations);
+        inOrder.verify(operations).multi();
+        inOrder.verify(valueOperations).set("cart::user1", json, Duration.ofMinutes(10));
+        inOrder.verify(valueOperations).set("cart:shadow:user1", json, Duration.ofHours(72));
+        inOrder.verify(operations).exec();
+        verify(redisTemplate, never()).opsForValue();
+    }
+
+    @Test
+    void testPutIfCurrent_loadNewerThanPublishedVersion_shouldCache() {
+        stubSession();
+        when(operations.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("cart:version:user1")).thenReturn("1");
+        when(operations.hasKey("cart::user1")).thenReturn(false);
+
+        cacheService.putIfCurrent("user1", 3, List.of(new CartItemResponse("user1", "prod1", 1, 10.0)));
+
+        verify(operations).multi();
+        verify(operations).exec();
+    }
+
+    @Test
+    void testRecordChange_rolledBack_shouldLeaveVersionAndCacheAlone() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cacheService.recordChange("user1", 2L, List.of(new CartItemResponse("user1", "prod1", 2, 20.0)), List.of());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            verifyNoInteractions(redisTemplate);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecordChange_committed_shouldPublishVersionThenPatchCachedCart() throws Exception {
+        stubSession();
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(2L);
+        when(operations.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("cart::user1")).thenReturn(objectMapper.writeValueAsString(
+                new CartCacheEntry(1, List.of(new CartItemResponse("user1", "prod1", 1, 10.0)))));
+        when(operations.exec()).thenReturn(List.of(true, true));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cacheService.recordChange("user1", 2L, List.of(new CartItemResponse("user1", "prod1", 2, 20.0)), List.of());
+            verifyNoInteractions(redisTemplate);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        String expected = objectMapper.writeValueAsString(
+                new CartCacheEntry(2, List.of(new CartItemResponse("user1", "prod1", 2, 20.0))));
+        InOrder inOrder = inOrder(redisTemplate, valueOperations);
+        inOrder.verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("cart:version:user1")), eq("2"), any());
+        inOrder.verify(valueOperations).set("cart::user1", expected, Duration.ofMinutes(10));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecordChange_clearedWhileNothingCached_shouldDropShadow() {
+        stubSession();
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(5L);
+        when(operations.opsForValue()).thenReturn(valueOperations);
+
+        commitChange(5L, List.of(), List.of("prod1", "prod2"));
+
+        verify(operations).delete("cart:shadow:user1");
+        verify(operations, never()).multi();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecordChange_cachedEntryOutOfOrder_shouldDropCartAndShadow() throws Exception {
+        stubSession();
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(5L);
+        when(operations.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("cart::user1")).thenReturn(objectMapper.writeValueAsString(
+                new CartCacheEntry(2, List.of(new CartItemResponse("user1", "prod1", 1, 10.0)))));
+        when(operations.exec()).thenReturn(List.of(2L));
+
+        commitChange(5L, List.of(), List.of("prod1"));
+
+        verify(operations).delete(List.of("cart::user1", "cart:shadow:user1"));
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecordChange_redisMode_shouldDropCartAndShadow() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any())).thenReturn(5L);
+        when(redisCartStore.isEnabled()).thenReturn(true);
+
+        commitChange(null, List.of(new CartItemResponse("user1", "prod1", 2, 20.0)), List.of());
+
+        InOrder inOrder = inOrder(redisTemplate);
+        inOrder.verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("cart:version:user1")), any());
+        inOrder.verify(redisTemplate).delete(List.of("cart::user1", "cart:shadow:user1"));
+    }
+
+    @Test
+    void testApply_shouldReplaceAppendAndRemoveLinesInPlace() {
+        List<CartItemResponse> cached = List.of(
+                new CartItemResponse("user1", "prod1", 1, 10.0),
+                new CartItemResponse("user1", "prod2", 2, 40.0),
+                new CartItemResponse("user1", "prod3", 1, 5.0));
+
+        List<CartItemResponse> updated = CartCacheService.apply(cached,
+                List.of(new CartItemResponse("user1", "prod1", 3, 30.0), new CartItemResponse("user1", "prod4", 1, 7.0)),
+                List.of("prod2"));
+
+        assertEquals(List.of(
+                new CartItemResponse("user1", "prod1", 3, 30.0),
+                new CartItemResponse("user1", "prod3", 1, 5.0),
+                new CartItemResponse("user1", "prod4", 1, 7.0)), updated);
+    }
+
+    @Test
+    void testApply_lineUpdatedTwice_shouldBeIdempotent() {
+        List<CartItemResponse> cached = List.of(new CartItemResponse("user1", "prod1", 1, 10.0));
+        List<CartItemResponse> line = List.of(new CartItemResponse("user1", "prod1", 2, 20.0));
+
+        List<CartItemResponse> once = CartCacheService.apply(cached, line, List.of());
+
+        assertEquals(once, CartCacheService.apply(once, line, List.of()));
+    }
+
+    private void commitChange(Long version, List<CartItemResponse> upserted, List<String> removed) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cacheService.recordChange("user1", version, upserted, removed);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubSession() {
+        when(redisTemplate.execute(any(SessionCallback.class))).thenAnswer(invocation ->
+                ((SessionCallback<Object>) invocation.getArgument(0)).execute(operations));
+    }
+}
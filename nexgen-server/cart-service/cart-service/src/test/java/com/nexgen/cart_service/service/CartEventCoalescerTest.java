@@ -0,0 +1,80 @@
+package com.nexgen.cart_service.service;
+
+import com.nexgen.cart_service.dto.AddToCartEvent;
+import com.nexgen.cart_service.dto.CartClearedEvent;
+import com.nexgen.cart_service.dto.CartItemDelta;
+import com.nexgen.cart_service.dto.CartItemsChangedEvent;
+import com.nexgen.cart_service.dto.RemoveFromCartEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartEventCoalescerTest {
+
+    @Mock
+    private CartEventProducerService cartEventProducer;
+
+    private CartEventCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new CartEventCoalescer(cartEventProducer, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(coalescer, "enabled", true);
+        ReflectionTestUtils.setField(coalescer, "windowMs", 100L);
+        coalescer.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+    }
+
+    @Test
+    void testSubmit_burstWithinWindow_shouldEmitOneNetDelta() {
+        for (int i = 0; i < 5; i++) {
+            coalescer.submit("user1", new AddToCartEvent("user1", "prod1", i + 1, 10.0 * (i + 1)), new CartItemDelta("prod1", 1, 10.0));
+        }
+        coalescer.submit("user1", new RemoveFromCartEvent("user1", "prod1", 2, "removed"), new CartItemDelta("prod1", -2, -20.0));
+
+        ArgumentCaptor<Object> published = ArgumentCaptor.forClass(Object.class);
+        verify(cartEventProducer, timeout(1000)).publish(published.capture());
+
+        CartItemsChangedEvent event = (CartItemsChangedEvent) published.getValue();
+        assertEquals("user1", event.getUserId());
+        assertEquals(List.of(new CartItemDelta("prod1", 3, 30.0)), event.getChanges());
+    }
+
+    @Test
+    void testSubmit_changesCancelOut_shouldEmitNothing() {
+        coalescer.submit("user1", new AddToCartEvent("user1", "prod1", 1, 10.0), new CartItemDelta("prod1", 1, 10.0));
+        coalescer.submit("user1", new RemoveFromCartEvent("user1", "prod1", 1, "removed"), new CartItemDelta("prod1", -1, -10.0));
+
+        verify(cartEventProducer, after(300).never()).publish(any());
+    }
+
+    @Test
+    void testSubmit_otherEvent_shouldFlushBufferedChangesFirst() {
+        CartClearedEvent cleared = new CartClearedEvent("user1", 1, "Cart cleared successfully.", List.of());
+
+        coalescer.submit("user1", new AddToCartEvent("user1", "prod1", 1, 10.0), new CartItemDelta("prod1", 1, 10.0));
+        coalescer.submit("user1", cleared, null);
+
+        InOrder inOrder = inOrder(cartEventProducer);
+        inOrder.verify(cartEventProducer).publish(any(CartItemsChangedEvent.class));
+        inOrder.verify(cartEventProducer).publish(cleared);
+    }
+}
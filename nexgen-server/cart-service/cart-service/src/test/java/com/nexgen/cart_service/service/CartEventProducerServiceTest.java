@@ -0,0 +1,108 @@
+package com.nexgen.cart_service.service;
+
+import com.nexgen.cart_service.dto.AddToCartEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartEventProducerServiceTest {
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+    @Mock
+    private KafkaFallbackService fallbackService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CartEventProducerService producer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        producer = new CartEventProducerService(kafkaTemplate, fallbackService, meterRegistry);
+        ReflectionTestUtils.setField(producer, "carAddedTopic", "cart-item-added");
+        ReflectionTestUtils.setField(producer, "publisherThreads", 1);
+        ReflectionTestUtils.setField(producer, "bufferCapacity", 10);
+        ReflectionTestUtils.setField(producer, "fallbackCapacity", 1);
+        producer.init();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        producer.shutdown();
+    }
+
+    @Test
+    void testSendAddToCartEvent_acknowledged_shouldNotFallBack() {
+        AddToCartEvent event = new AddToCartEvent("user1", "prod1", 1, 10.0);
+        when(kafkaTemplate.send("cart-item-added", "user1", event))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        producer.sendAddToCartEvent(event);
+
+        verify(kafkaTemplate, timeout(1000)).send("cart-item-added", "user1", event);
+        verify(fallbackService, after(200).never()).enqueueFailedEvent(any());
+    }
+
+    @Test
+    void testSendAddToCartEvent_brokerTimeout_shouldFallBackToRedis() {
+        AddToCartEvent event = new AddToCartEvent("user1", "prod1", 1, 10.0);
+        when(kafkaTemplate.send("cart-item-added", "user1", event))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Timed out waiting for ack")));
+
+        producer.sendAddToCartEvent(event);
+
+        verify(fallbackService, timeout(1000)).enqueueFailedEvent(event);
+        assertEquals(1.0, meterRegistry.counter("cart.kafka.fallback.count").count());
+    }
+
+    @Test
+    void testSendAddToCartEvent_sendThrows_shouldFallBackToRedis() {
+        AddToCartEvent event = new AddToCartEvent("user1", "prod1", 1, 10.0);
+        when(kafkaTemplate.send("cart-item-added", "user1", event))
+                .thenThrow(new RuntimeException("max.block.ms exceeded"));
+
+        producer.sendAddToCartEvent(event);
+
+        verify(fallbackService, timeout(1000)).enqueueFailedEvent(event);
+    }
+
+    @Test
+    void testFallback_queueFull_shouldDropAndCountInsteadOfQueueing() throws InterruptedException {
+        CountDownLatch redisBlocked = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            redisBlocked.await();
+            return null;
+        }).when(fallbackService).enqueueFailedEvent(any());
+        when(kafkaTemplate.send(eq("cart-item-added"), any(), any())).thenThrow(new RuntimeException("broker down"));
+
+        // The first event occupies the fallback thread, the second fills its queue and the third is rejected.
+        for (int i = 1; i <= 3; i++) {
+            producer.sendAddToCartEvent(new AddToCartEvent("user" + i, "prod1", 1, 10.0));
+        }
+
+        long deadline = System.currentTimeMillis() + 1000;
+        while (meterRegistry.counter("cart.kafka.fallback.dropped").count() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        redisBlocked.countDown();
+
+        assertEquals(1.0, meterRegistry.counter("cart.kafka.fallback.dropped").count());
+        verify(fallbackService, timeout(1000).times(2)).enqueueFailedEvent(any());
+    }
+}
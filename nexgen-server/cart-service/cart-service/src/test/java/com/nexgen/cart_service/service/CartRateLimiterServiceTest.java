@@ -0,0 +1,70 @@
+package com.nexgen.cart_service.service;
+
+import com.nexgen.cart_service.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartRateLimiterServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CartRateLimiterService rateLimiterService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimiterService = new CartRateLimiterService(redisTemplate, meterRegistry);
+        ReflectionTestUtils.setField(rateLimiterService, "enabled", true);
+        ReflectionTestUtils.setField(rateLimiterService, "userCapacity", 20);
+        ReflectionTestUtils.setField(rateLimiterService, "userRefillPerSecond", 5.0);
+        ReflectionTestUtils.setField(rateLimiterService, "leaseSize", 5);
+        ReflectionTestUtils.setField(rateLimiterService, "leaseTtlMs", 60000L);
+        rateLimiterService.initCounters();
+    }
+
+    @Test
+    void testCheckLimit_leasedTokens_shouldSkipRedisUntilLeaseIsUsed() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any())).thenReturn(5L);
+
+        for (int i = 0; i < 5; i++) {
+            rateLimiterService.checkLimit("add", "user1", null);
+        }
+
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testCheckLimit_bucketEmpty_shouldRejectAndCountByOperation() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any())).thenReturn(0L);
+
+        assertThrows(RateLimitExceededException.class, () -> rateLimiterService.checkLimit("checkout", "user1", null));
+        assertEquals(1.0, meterRegistry.counter("cart.ratelimit.rejected", "operation", "checkout", "scope", "user").count());
+    }
+
+    @Test
+    void testCheckLimit_redisUnavailable_shouldFailOpen() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        rateLimiterService.checkLimit("add", "user1", null);
+
+        assertEquals(1.0, meterRegistry.counter("cart.ratelimit.failopen.count").count());
+    }
+}
@@ -0,0 +1,157 @@
+package com.nexgen.cart_service.service;
+
+import com.nexgen.cart_service.config.CartRoutingDataSource;
+import com.nexgen.cart_service.dto.CartShardMoveResponse;
+import com.nexgen.cart_service.exception.InvalidShardMoveException;
+import com.nexgen.cart_service.exception.ShardMoveInProgressException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartReshardServiceTest {
+
+    private static final long START = Long.MIN_VALUE;
+    private static final long END = Long.MAX_VALUE;
+
+    @Mock
+    private CartShardRouter cartShardRouter;
+    @Mock
+    private CartRoutingDataSource routingDataSource;
+    @Mock
+    private RedisLockService lockService;
+    @Mock
+    private NamedParameterJdbcTemplate sourceJdbc;
+    @Mock
+    private NamedParameterJdbcTemplate targetJdbc;
+    @Mock
+    private TransactionTemplate sourceTransaction;
+    @Mock
+    private TransactionTemplate targetTransaction;
+
+    private CartReshardService reshardService;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put("shard-0", mock(DataSource.class));
+        shards.put("shard-1", mock(DataSource.class));
+        when(routingDataSource.getShards()).thenReturn(shards);
+
+        reshardService = new CartReshardService(cartShardRouter, routingDataSource, lockService);
+        ReflectionTestUtils.setField(reshardService, "drainMs", 0L);
+        ReflectionTestUtils.setField(reshardService, "batchSize", 200);
+        ReflectionTestUtils.setField(reshardService, "lockTtlMinutes", 60L);
+        reshardService.init();
+
+        // Each shard's own pool and transaction manager are swapped for mocks.
+        jdbcTemplates().put("shard-0", sourceJdbc);
+        jdbcTemplates().put("shard-1", targetJdbc);
+        transactionTemplates().put("shard-0", sourceTransaction);
+        transactionTemplates().put("shard-1", targetTransaction);
+    }
+
+    @Test
+    void testMoveRange_shouldFreezeCopyFlipThenDeleteFromSource() {
+        givenMoveCanStart();
+        runsCallback(sourceTransaction);
+        runsCallback(targetTransaction);
+        when(sourceJdbc.queryForList(anyString(), anyMap(), eq(String.class))).thenReturn(List.of("user1"));
+        when(sourceJdbc.queryForList(startsWith("SELECT user_id, product_id"), anyMap()))
+                .thenReturn(List.of(Map.of("user_id", "user1", "product_id", "prod1", "quantity", 1, "price", 10.0)));
+        when(sourceJdbc.queryForList(startsWith("SELECT user_id, item_count"), anyMap())).thenReturn(List.of());
+
+        CartShardMoveResponse response = reshardService.moveRange(START, END, "shard-1");
+
+        assertEquals(1, response.getUsersMoved());
+        assertEquals(1, response.getRowsCopied());
+        InOrder inOrder = inOrder(cartShardRouter, targetJdbc, sourceJdbc, lockService);
+        inOrder.verify(cartShardRouter).putRoute(new CartShardRoute(START, END, "shard-1", true));
+        inOrder.verify(targetJdbc).batchUpdate(startsWith("INSERT INTO cart_items"), any(SqlParameterSource[].class));
+        inOrder.verify(cartShardRouter).putRoute(new CartShardRoute(START, END, "shard-1", false));
+        inOrder.verify(sourceJdbc).update(eq("DELETE FROM cart_items WHERE user_id IN (:userIds)"), anyMap());
+        inOrder.verify(lockService).release("cart:shard:move-lock", "token");
+    }
+
+    @Test
+    void testMoveRange_copyFails_shouldUnfreezeRangeAndKeepSourceRows() {
+        givenMoveCanStart();
+        when(sourceJdbc.queryForList(anyString(), anyMap(), eq(String.class))).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThrows(QueryTimeoutException.class, () -> reshardService.moveRange(START, END, "shard-1"));
+
+        verify(cartShardRouter).dropRoute(START, END);
+        verify(cartShardRouter, never()).putRoute(argThat(route -> !route.isFrozen()));
+        verify(sourceJdbc, never()).update(anyString(), anyMap());
+        verify(lockService).release("cart:shard:move-lock", "token");
+    }
+
+    @Test
+    void testMoveRange_anotherMoveRunning_shouldReject() {
+        when(lockService.tryLock(eq("cart:shard:move-lock"), any(Duration.class))).thenReturn(null);
+
+        assertThrows(ShardMoveInProgressException.class, () -> reshardService.moveRange(START, END, "shard-1"));
+
+        verify(cartShardRouter, never()).putRoute(any());
+    }
+
+    @Test
+    void testMoveRange_overlappingRoute_shouldRejectWithoutFreezing() {
+        givenMoveCanStart();
+        when(cartShardRouter.routes()).thenReturn(List.of(new CartShardRoute(0, 100, "shard-0", false)));
+
+        assertThrows(InvalidShardMoveException.class, () -> reshardService.moveRange(START, END, "shard-1"));
+
+        verify(cartShardRouter, never()).putRoute(any());
+        verify(lockService).release("cart:shard:move-lock", "token");
+    }
+
+    private void givenMoveCanStart() {
+        when(lockService.tryLock(eq("cart:shard:move-lock"), any(Duration.class))).thenReturn("token");
+        lenient().when(cartShardRouter.shards()).thenReturn(List.of("shard-0", "shard-1"));
+        lenient().when(cartShardRouter.maxRouteStalenessMs()).thenReturn(0L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runsCallback(TransactionTemplate transaction) {
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transaction).executeWithoutResult(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, NamedParameterJdbcTemplate> jdbcTemplates() {
+        return (Map<String, NamedParameterJdbcTemplate>) ReflectionTestUtils.getField(reshardService, "jdbcTemplates");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, TransactionTemplate> transactionTemplates() {
+        return (Map<String, TransactionTemplate>) ReflectionTestUtils.getField(reshardService, "transactionTemplates");
+    }
+}
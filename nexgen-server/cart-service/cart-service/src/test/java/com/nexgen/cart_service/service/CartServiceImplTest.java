@@ -3,6 +3,7 @@ package com.nexgen.cart_service.service;
 import com.nexgen.cart_service.dto.*;
 import com.nexgen.cart_service.entity.CartItem;
 import com.nexgen.cart_service.exception.CartEmptyException;
+import com.nexgen.cart_service.exception.CartUnavailableException;
 import com.nexgen.cart_service.exception.InvalidQuantityException;
 import com.nexgen.cart_service.repository.CartItemRepository;
 import io.micrometer.core.instrument.Counter;
@@ -10,17 +11,24 @@ import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.hibernate.validator.internal.util.Contracts.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,10 +37,24 @@ class CartServiceImplTest {
     @Mock
     private CartItemRepository cartRepository;
     @Mock
-    private CartEventProducerService cartEventProducer;
+    private CartOutboxService cartOutboxService;
     @Mock
     private MeterRegistry meterRegistry;
+    @Mock
+    private RedisCartStore redisCartStore;
 
+    @Mock
+    private CheckoutIdempotencyService checkoutIdempotencyService;
+    @Mock
+    private CartSummaryService cartSummaryService;
+    @Mock
+    private CartCacheService cartCacheService;
+    @Mock
+    private CartShadowRefresher cartShadowRefresher;
+    @Mock
+    private CartShardRouter cartShardRouter;
+    @Mock
+    private GuestCartTombstoneService guestCartTombstoneService;
     @Mock
     private Counter getCartItemCounter;
     @Mock
@@ -43,6 +65,10 @@ class CartServiceImplTest {
     private Counter clearCartCounter;
     @Mock
     private Counter checkoutCounter;
+    @Mock
+    private Counter batchCounter;
+    @Mock
+    private Counter mergeCounter;
 
     @InjectMocks
     private CartServiceImpl cartService;
@@ -54,6 +80,8 @@ class CartServiceImplTest {
         when(meterRegistry.counter("cart.remove.count")).thenReturn(removeFromCartCounter);
         when(meterRegistry.counter("cart.clear.count")).thenReturn(clearCartCounter);
         when(meterRegistry.counter("cart.checkout.count")).thenReturn(checkoutCounter);
+        when(meterRegistry.counter("cart.batch.count")).thenReturn(batchCounter);
+        when(meterRegistry.counter("cart.merge.count")).thenReturn(mergeCounter);
 
         cartService.initCounters();
     }
@@ -68,13 +96,16 @@ class CartServiceImplTest {
                 .price(200.0)
                 .build();
 
+        when(cartSummaryService.currentVersion(userId)).thenReturn(3L);
         when(cartRepository.findByUserId(userId)).thenReturn(List.of(item));
 
-        List<CartItemResponse> response = cartService.getCartByUser(userId);
+        CartView response = cartService.getCartByUser(userId);
 
-        assertEquals(1, response.size());
-        assertEquals("prod1", response.get(0).getProductId());
+        assertEquals(1, response.getItems().size());
+        assertEquals("prod1", response.getItems().get(0).getProductId());
+        assertFalse(response.isStale());
         verify(getCartItemCounter).increment();
+        verify(cartCacheService).putIfCurrent(eq(userId), eq(3L), eq(response.getItems()));
     }
 
     @Test
@@ -82,8 +113,6 @@ class CartServiceImplTest {
         String userId = "user123";
         CartItemRequest request = new CartItemRequest("prod1", 2, 100.0);
 
-        when(cartRepository.existsByUserIdAndProductId(userId, "prod1")).thenReturn(false);
-
         CartItem saved = CartItem.builder()
                 .userId(userId)
                 .productId("prod1")
@@ -91,13 +120,46 @@ class CartServiceImplTest {
                 .price(200.0)
                 .build();
 
-        when(cartRepository.save(any(CartItem.class))).thenReturn(saved);
+        when(cartRepository.upsertItem(userId, "prod1", 2, 200.0)).thenReturn(saved);
+        when(cartSummaryService.applyChange(userId, 1, 2, 200.0)).thenReturn(4L);
 
         CartItemResponse response = cartService.addItemToCart(userId, request);
 
         assertEquals("prod1", response.getProductId());
         verify(addToCartCounter).increment();
-        verify(cartEventProducer).sendAddToCartEvent(any(AddToCartEvent.class));
+        verify(cartOutboxService).record(eq(userId), any(AddToCartEvent.class), any(CartItemDelta.class));
+        verify(cartCacheService).recordChange(userId, 4L, List.of(new CartItemResponse(userId, "prod1", 2, 200.0)), List.of());
+    }
+
+    @Test
+    void testGetCartByUser_cached_shouldNotQueryDatabase() {
+        String userId = "user123";
+        List<CartItemResponse> cached = List.of(new CartItemResponse(userId, "prod1", 2, 200.0));
+        when(cartCacheService.get(userId)).thenReturn(cached);
+
+        assertEquals(cached, cartService.getCartByUser(userId).getItems());
+
+        verifyNoInteractions(cartRepository);
+        verify(cartCacheService, never()).putIfCurrent(any(), anyLong(), any());
+    }
+
+    @Test
+    void testFallbackGetCart_withShadow_shouldServeStaleCartAndScheduleRefresh() {
+        String userId = "user123";
+        List<CartItemResponse> shadow = List.of(new CartItemResponse(userId, "prod1", 2, 200.0));
+        when(cartCacheService.getShadow(userId)).thenReturn(shadow);
+
+        CartView response = cartService.fallbackGetCart(userId, new RuntimeException("circuit open"));
+
+        assertTrue(response.isStale());
+        assertEquals(shadow, response.getItems());
+        verify(cartShadowRefresher).scheduleRefresh(eq(userId), any());
+    }
+
+    @Test
+    void testFallbackGetCart_withoutShadow_shouldNotPretendCartIsEmpty() {
+        assertThrows(CartUnavailableException.class,
+                () -> cartService.fallbackGetCart("user123", new RuntimeException("circuit open")));
     }
 
     @Test
@@ -116,9 +178,10 @@ class CartServiceImplTest {
         CartItemResponse response = cartService.removeItemQuantity(userId, productId, 2);
 
         assertEquals(0, response.getQuantity());
+        verify(cartSummaryService).applyChange(userId, -1, -2, -200.0);
         verify(removeFromCartCounter).increment();
         verify(cartRepository).delete(item);
-        verify(cartEventProducer).sendRemoveFromCartEvent(any(RemoveFromCartEvent.class));
+        verify(cartOutboxService).record(eq(userId), any(RemoveFromCartEvent.class), any(CartItemDelta.class));
     }
 
     @Test
@@ -127,32 +190,53 @@ class CartServiceImplTest {
         CartItem item1 = CartItem.builder().userId(userId).productId("prod1").quantity(2).price(200.0).build();
         CartItem item2 = CartItem.builder().userId(userId).productId("prod2").quantity(3).price(300.0).build();
 
-        when(cartRepository.findByUserId(userId)).thenReturn(List.of(item1, item2));
+        when(cartRepository.deleteAllByUserIdReturning(userId)).thenReturn(List.of(item1, item2));
 
         cartService.clearCart(userId);
 
         verify(clearCartCounter).increment();
-        verify(cartRepository).deleteByUserId(userId);
-        verify(cartEventProducer).sendCartClearedEvent(any(CartClearedEvent.class));
+        verify(cartOutboxService).record(eq(userId), argThat((CartClearedEvent event) ->
+                event.getQuantity() == 5 && event.getItems().size() == 2));
     }
 
     @Test
     void testCheckout_shouldReturnCheckoutResponse() {
         String userId = "user123";
-        CheckoutRequest request = new CheckoutRequest(userId, "CREDIT CARD");
+        CheckoutRequest request = new CheckoutRequest(userId, "CREDIT CARD", null);
 
         CartItem item1 = CartItem.builder().userId(userId).productId("prod1").quantity(2).price(200.0).build();
         CartItem item2 = CartItem.builder().userId(userId).productId("prod2").quantity(3).price(300.0).build();
 
-        when(cartRepository.findByUserId(userId)).thenReturn(List.of(item1, item2));
+        when(cartRepository.deleteAllByUserIdReturning(userId)).thenReturn(List.of(item1, item2));
 
         CheckoutResponse response = cartService.checkout(request);
 
         assertEquals(500.0, response.getTotalAmount());
         assertEquals("SUCCESS", response.getPaymentStatus());
-        verify(cartRepository).deleteAll(List.of(item1, item2));
+        assertEquals(List.of("prod1", "prod2"), response.getPurchasedProductIds());
         verify(checkoutCounter).increment();
-        verify(cartEventProducer).sendCheckoutEvent(any(CheckoutEvent.class));
+        verify(cartOutboxService).record(eq(userId), argThat((CheckoutEvent event) ->
+                event.getItems().equals(List.of(new CartLineItem("prod1", 2, 200.0), new CartLineItem("prod2", 3, 300.0)))));
+    }
+
+    @Test
+    void testCheckout_repeatedIdempotencyKey_shouldReturnStoredResponse() {
+        String userId = "user123";
+        CheckoutRequest request = new CheckoutRequest(userId, "CREDIT CARD", "key-1");
+        CheckoutResponse stored = CheckoutResponse.builder()
+                .userId(userId)
+                .paymentStatus("SUCCESS")
+                .totalAmount(500.0)
+                .purchasedProductIds(List.of("prod1"))
+                .build();
+
+        when(checkoutIdempotencyService.findCompleted(userId, "key-1")).thenReturn(stored);
+
+        CheckoutResponse response = cartService.checkout(request);
+
+        assertEquals(stored, response);
+        verify(checkoutIdempotencyService, never()).begin(any(), any());
+        verifyNoInteractions(cartRepository, cartOutboxService);
     }
 
     @Test
@@ -186,9 +270,9 @@ class CartServiceImplTest {
     @Test
     void testCheckout_emptyCart_shouldThrowException() {
         String userId = "user123";
-        CheckoutRequest request = new CheckoutRequest(userId, "CREDIT CARD");
+        CheckoutRequest request = new CheckoutRequest(userId, "CREDIT CARD", null);
 
-        when(cartRepository.findByUserId(userId)).thenReturn(List.of());
+        when(cartRepository.deleteAllByUserIdReturning(userId)).thenReturn(List.of());
 
         CartEmptyException exception = assertThrows(
                 CartEmptyException.class,
@@ -199,24 +283,197 @@ class CartServiceImplTest {
     }
 
     @Test
-    void testAddItemToCart_kafkaFails_shouldStillReturnResponse() {
+    void testAddItemToCart_shouldRecordEventInOutboxInsteadOfPublishing() {
         String userId = "user123";
         CartItemRequest request = new CartItemRequest("prod1", 2, 100.0);
 
-        when(cartRepository.existsByUserIdAndProductId(userId, "prod1")).thenReturn(false);
-
         CartItem savedItem = CartItem.builder()
                 .userId(userId).productId("prod1").quantity(2).price(200.0).build();
-        when(cartRepository.save(any())).thenReturn(savedItem);
-
-        // Simulate Kafka failure
-
-        doThrow(new RuntimeException("Kafka down"))
-                .when(cartEventProducer).sendAddToCartEvent(any());
+        when(cartRepository.upsertItem(userId, "prod1", 2, 200.0)).thenReturn(savedItem);
 
         CartItemResponse response = cartService.addItemToCart("user123", request);
         assertNotNull(response);
         assertEquals("prod1", response.getProductId());
+        verify(cartOutboxService).record(userId, new AddToCartEvent(userId, "prod1", 2, 200.0),
+                new CartItemDelta("prod1", 2, 200.0));
+    }
+
+    @Test
+    void testAddItemToCart_redisMode_shouldUseRedisStore() {
+        String userId = "user123";
+        CartItemRequest request = new CartItemRequest("prod1", 2, 100.0);
+
+        CartItem stored = CartItem.builder()
+                .userId(userId).productId("prod1").quantity(2).price(200.0).build();
+
+        when(redisCartStore.isEnabled()).thenReturn(true);
+        when(redisCartStore.addItem(userId, "prod1", 2, 200.0, new AddToCartEvent(userId, "prod1", 0, 0))).thenReturn(stored);
+
+        CartItemResponse response = cartService.addItemToCart(userId, request);
+
+        assertEquals(2, response.getQuantity());
+        assertEquals(200.0, response.getPrice());
+        verifyNoInteractions(cartRepository);
+        // The add script already appended the event to the Redis outbox.
+        verify(cartOutboxService).recordAppended(userId, new AddToCartEvent(userId, "prod1", 2, 200.0),
+                new CartItemDelta("prod1", 2, 200.0));
+        verify(cartOutboxService, never()).record(any(), any(), any());
+    }
+
+    @Test
+    void testApplyBatch_shouldApplyOperationsAndReturnNetChanges() {
+        String userId = "user123";
+        CartItem existing = CartItem.builder().id(1L).userId(userId).productId("prod1").quantity(2).price(200.0).build();
+
+        when(cartRepository.findByUserId(userId)).thenReturn(List.of(existing));
+        when(cartRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CartBatchRequest request = new CartBatchRequest(List.of(
+                new CartBatchOperation(CartOperationType.ADD, "prod2", 3, 10.0),
+                new CartBatchOperation(CartOperationType.REMOVE, "prod1", 2, null),
+                new CartBatchOperation(CartOperationType.SET, "prod2", 1, null)
+        ));
+
+        CartBatchResponse response = cartService.applyBatch(userId, request);
+
+        assertEquals(1, response.getItems().size());
+        assertEquals("prod2", response.getItems().get(0).getProductId());
+        assertEquals(1, response.getItems().get(0).getQuantity());
+        assertEquals(10.0, response.getItems().get(0).getPrice());
+        assertEquals(2, response.getChanges().size());
+        verify(cartRepository).deleteAllInBatch(List.of(existing));
+        verify(cartOutboxService).record(eq(userId), any(CartItemsChangedEvent.class));
+        verify(batchCounter).increment();
+    }
+
+    @Test
+    void testApplyBatch_redisMode_invalidOperation_shouldLeaveRedisCartUntouched() {
+        String userId = "user123";
+        CartItem existing = CartItem.builder().userId(userId).productId("prod1").quantity(1).price(100.0).build();
+
+        when(redisCartStore.isEnabled()).thenReturn(true);
+        when(redisCartStore.getItems(userId)).thenReturn(List.of(existing));
+
+        CartBatchRequest request = new CartBatchRequest(List.of(
+                new CartBatchOperation(CartOperationType.ADD, "prod2", 3, 10.0),
+                new CartBatchOperation(CartOperationType.REMOVE, "prod1", 5, null)
+        ));
+
+        assertThrows(InvalidQuantityException.class, () -> cartService.applyBatch(userId, request));
+
+        verify(redisCartStore, never()).applyBatch(any(), any(), any(), any());
+        verifyNoInteractions(cartOutboxService);
+        assertEquals(1, existing.getQuantity());
+    }
+
+    @Test
+    void testApplyBatch_redisMode_concurrentChange_shouldRecomputeFromFreshCart() {
+        String userId = "user123";
+        CartItem stale = CartItem.builder().userId(userId).productId("prod1").quantity(1).price(100.0).build();
+        CartItem fresh = CartItem.builder().userId(userId).productId("prod1").quantity(2).price(200.0).build();
+
+        when(redisCartStore.isEnabled()).thenReturn(true);
+        when(redisCartStore.getItems(userId)).thenReturn(List.of(stale), List.of(fresh));
+        when(redisCartStore.applyBatch(eq(userId), anyMap(), anyCollection(), any())).thenReturn(false, true);
+
+        CartBatchRequest request = new CartBatchRequest(List.of(
+                new CartBatchOperation(CartOperationType.ADD, "prod1", 1, 100.0)
+        ));
+
+        CartBatchResponse response = cartService.applyBatch(userId, request);
+
+        assertEquals(3, response.getItems().get(0).getQuantity());
+        assertEquals(300.0, response.getItems().get(0).getPrice());
+        verify(redisCartStore, times(2)).applyBatch(eq(userId), anyMap(), anyCollection(), any());
+        verify(cartOutboxService).recordAppended(eq(userId), any(CartItemsChangedEvent.class));
     }
 
+
+    @Test
+    void testMergeGuestCart_shouldMergeWithPolicyAndRecordOneEvent() {
+        String userId = "user123";
+        CartItem merged = CartItem.builder().userId(userId).productId("prod1").quantity(3).price(300.0).build();
+
+        when(cartRepository.mergeGuestItems(userId, "guest1", "MAX")).thenReturn(List.of(merged));
+        when(cartRepository.findByUserId(userId)).thenReturn(List.of(merged));
+
+        List<CartItemResponse> items = cartService.mergeGuestCart(userId, "guest1", CartMergePolicy.MAX);
+
+        assertEquals(1, items.size());
+        assertEquals(3, items.get(0).getQuantity());
+        verify(cartRepository).deleteAllByUserIdReturning("guest1");
+        verify(cartSummaryService).rebuild(userId);
+        verify(cartSummaryService).rebuild("guest1");
+        verify(cartOutboxService).record(eq(userId), argThat((CartMergedEvent event) ->
+                event.getGuestId().equals("guest1") && event.getPolicy() == CartMergePolicy.MAX));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMergeGuestCart_acrossShards_shouldStageGuestLinesAndDropThemFromGuestShardAfterCommit() {
+        String userId = "user123";
+        CartItem guestLine = CartItem.builder().id(7L).userId("guest1").productId("prod1").quantity(1).price(100.0).build();
+        CartItem merged = CartItem.builder().userId(userId).productId("prod1").quantity(3).price(300.0).build();
+
+        when(cartShardRouter.shardFor(userId)).thenReturn("shard-0");
+        when(cartShardRouter.shardFor("guest1")).thenReturn("shard-1");
+        when(cartShardRouter.inShard(eq("shard-1"), any())).thenAnswer(invocation ->
+                ((Supplier<Object>) invocation.getArgument(1)).get());
+        when(cartRepository.findByUserId("guest1")).thenReturn(List.of(guestLine));
+        when(cartRepository.mergeGuestItems(userId, "guest1", "SUM")).thenReturn(List.of(merged));
+        when(cartRepository.findByUserId(userId)).thenReturn(List.of(merged));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cartService.mergeGuestCart(userId, "guest1", CartMergePolicy.SUM);
+
+            verify(cartRepository).saveAll(argThat((List<CartItem> staged) -> staged.size() == 1
+                    && staged.get(0).getId() == null && staged.get(0).getUserId().equals("guest1")));
+            verify(cartRepository, times(1)).deleteAllByUserIdReturning("guest1");
+            verify(cartSummaryService, never()).rebuild("guest1");
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            verify(cartRepository, times(2)).deleteAllByUserIdReturning("guest1");
+            InOrder inOrder = inOrder(guestCartTombstoneService, cartRepository, cartSummaryService);
+            inOrder.verify(guestCartTombstoneService).mark("guest1", userId);
+            inOrder.verify(cartRepository).deleteAllByUserIdReturning("guest1");
+            inOrder.verify(cartSummaryService).rebuild("guest1");
+            inOrder.verify(guestCartTombstoneService).clear("guest1");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMergeGuestCart_tombstonedGuestCart_shouldOnlyRetryDroppingGuestRows() {
+        String userId = "user123";
+        CartItem userLine = CartItem.builder().userId(userId).productId("prod1").quantity(3).price(300.0).build();
+
+        when(cartShardRouter.shardFor(userId)).thenReturn("shard-0");
+        when(cartShardRouter.shardFor("guest1")).thenReturn("shard-1");
+        when(cartShardRouter.inShard(eq("shard-1"), any())).thenAnswer(invocation ->
+                ((Supplier<Object>) invocation.getArgument(1)).get());
+        when(guestCartTombstoneService.isMerged("guest1")).thenReturn(true);
+        when(cartRepository.mergeGuestItems(userId, "guest1", "SUM")).thenReturn(List.of());
+        when(cartRepository.findByUserId(userId)).thenReturn(List.of(userLine));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            List<CartItemResponse> items = cartService.mergeGuestCart(userId, "guest1", CartMergePolicy.SUM);
+
+            assertEquals(3, items.get(0).getQuantity());
+            verify(cartRepository, never()).findByUserId("guest1");
+            verify(cartRepository, never()).saveAll(any());
+            verify(cartOutboxService, never()).record(eq(userId), any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            verify(cartRepository, times(2)).deleteAllByUserIdReturning("guest1");
+            verify(guestCartTombstoneService).clear("guest1");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
 }
@@ -0,0 +1,112 @@
+package com.nexgen.cart_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexgen.cart_service.config.CartRoutingDataSource;
+import com.nexgen.cart_service.exception.CartUnavailableException;
+import com.nexgen.cart_service.util.ConsistentHashRing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartShardRouterTest {
+
+    private static final List<String> SHARDS = List.of("shard-0", "shard-1", "shard-2");
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ObjectProvider<CartRoutingDataSource> routingDataSourceProvider;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CartShardRouter router;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        SHARDS.forEach(shard -> dataSources.put(shard, mock(DataSource.class)));
+        when(routingDataSourceProvider.getIfAvailable()).thenReturn(new CartRoutingDataSource(dataSources, SHARDS));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        router = new CartShardRouter(redisTemplate, objectMapper, transactionManager, routingDataSourceProvider, 128, 3000);
+    }
+
+    @Test
+    void testShardFor_noRoutes_shouldFollowTheRing() {
+        loadRoutes(1, Map.of());
+
+        ConsistentHashRing ring = new ConsistentHashRing(SHARDS, 128);
+        for (int i = 0; i < 200; i++) {
+            assertEquals(ring.nodeFor("user" + i), router.shardFor("user" + i));
+        }
+    }
+
+    @Test
+    void testShardFor_movedOrFrozenRange_shouldOverrideTheRing() throws Exception {
+        long hash = ConsistentHashRing.hash("user1");
+        CartShardRoute moved = new CartShardRoute(hash, hash + 1, "shard-3", false);
+        loadRoutes(1, Map.of("moved", objectMapper.writeValueAsString(moved)));
+
+        assertEquals("shard-3", router.shardFor("user1"));
+
+        moved.setFrozen(true);
+        loadRoutes(2, Map.of("moved", objectMapper.writeValueAsString(moved)));
+
+        assertThrows(CartUnavailableException.class, () -> router.shardFor("user1"));
+    }
+
+    @Test
+    void testShardFor_refreshFailing_shouldKeepLastRoutesUntilTheyAreTooOld() throws Exception {
+        long hash = ConsistentHashRing.hash("user1");
+        loadRoutes(1, Map.of("moved", objectMapper.writeValueAsString(new CartShardRoute(hash, hash + 1, "shard-3", false))));
+
+        when(valueOperations.get("cart:shard:epoch")).thenThrow(new RedisConnectionFailureException("redis down"));
+        router.refreshRoutes();
+
+        assertEquals("shard-3", router.shardFor("user1"));
+
+        ReflectionTestUtils.setField(router, "routesCheckedAt", System.currentTimeMillis() - 3001);
+
+        assertThrows(CartUnavailableException.class, () -> router.shardFor("user1"));
+    }
+
+    @Test
+    void testRefreshRoutes_sameEpoch_shouldNotReloadRoutes() {
+        loadRoutes(1, Map.of());
+
+        router.refreshRoutes();
+
+        verify(hashOperations, times(1)).entries("cart:shard:routes");
+    }
+
+    private void loadRoutes(long epoch, Map<Object, Object> routes) {
+        lenient().when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        lenient().when(valueOperations.get("cart:shard:epoch")).thenReturn(String.valueOf(epoch));
+        lenient().when(hashOperations.entries("cart:shard:routes")).thenReturn(routes);
+        router.refreshRoutes();
+    }
+}
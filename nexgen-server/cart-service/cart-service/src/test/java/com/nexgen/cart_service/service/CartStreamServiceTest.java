@@ -0,0 +1,70 @@
+package com.nexgen.cart_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexgen.cart_service.dto.AddToCartEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartStreamServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private CartStreamService cartStreamService;
+
+    @BeforeEach
+    void setUp() {
+        cartStreamService = new CartStreamService(redisTemplate, listenerContainer, new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cartStreamService, "timeoutMs", 60000L);
+        ReflectionTestUtils.setField(cartStreamService, "maxPendingEvents", 100);
+        ReflectionTestUtils.setField(cartStreamService, "deliveryThreads", 1);
+        cartStreamService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartStreamService.shutdown();
+    }
+
+    @Test
+    void testSubscribe_twoConnections_shouldListenOnUserChannelOnce() {
+        cartStreamService.subscribe("user1");
+        cartStreamService.subscribe("user1");
+
+        verify(listenerContainer, times(1)).addMessageListener(cartStreamService, new ChannelTopic("cart:stream:user1"));
+        assertEquals(2, cartStreamService.subscriberCount("user1"));
+    }
+
+    @Test
+    void testPublish_shouldSendTypedEventOnUserChannel() {
+        cartStreamService.publish("user1", new AddToCartEvent("user1", "prod1", 2, 20.0));
+
+        verify(redisTemplate).convertAndSend(eq("cart:stream:user1"),
+                argThat((String message) -> message.startsWith("AddToCartEvent::") && message.contains("\"productId\":\"prod1\"")));
+    }
+
+    @Test
+    void testPublish_redisDown_shouldNotFailTheCaller() {
+        when(redisTemplate.convertAndSend(anyString(), anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertDoesNotThrow(() -> cartStreamService.publish("user1", new AddToCartEvent("user1", "prod1", 2, 20.0)));
+    }
+}
@@ -0,0 +1,143 @@
+package com.nexgen.cart_service.service;
+
+import com.nexgen.cart_service.dto.CartBatchOperation;
+import com.nexgen.cart_service.dto.CartBatchRequest;
+import com.nexgen.cart_service.dto.CartOperationType;
+import com.nexgen.cart_service.dto.ProductEvent;
+import com.nexgen.cart_service.exception.PriceMismatchException;
+import com.nexgen.cart_service.exception.ProductNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class ProductPriceClientTest {
+
+    private ProductPriceClient client;
+
+    @BeforeEach
+    void setUp() {
+        ProductPriceClient target = new ProductPriceClient(RestClient.builder(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(target, "enabled", true);
+        ReflectionTestUtils.setField(target, "productServiceUrl", "http://localhost:8083");
+        ReflectionTestUtils.setField(target, "cacheTtlMs", 60000L);
+        ReflectionTestUtils.setField(target, "batchWindowMs", 50L);
+        ReflectionTestUtils.setField(target, "maxBatchSize", 100);
+        ReflectionTestUtils.setField(target, "lookupTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(target, "tolerance", 0.01);
+
+        client = spy(target);
+        client.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+    }
+
+    @Test
+    void testValidatePrices_concurrentLookups_shouldShareOneFetch() throws Exception {
+        doReturn(Map.of("prod1", 10.0, "prod2", 20.0, "prod3", 30.0)).when(client).fetchPrices(anyCollection());
+
+        List<String> skus = List.of("prod1", "prod2", "prod3");
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(skus.size());
+        try {
+            List<Future<?>> results = IntStream.range(0, skus.size())
+                    .mapToObj(i -> callers.submit(() -> {
+                        start.await();
+                        client.validatePrices(Map.of(skus.get(i), 10.0 * (i + 1)));
+                        return null;
+                    }))
+                    .collect(Collectors.toList());
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        verify(client, times(1)).fetchPrices(Set.of("prod1", "prod2", "prod3"));
+    }
+
+    @Test
+    void testValidatePrices_cachedPrice_shouldNotFetchAgain() {
+        doReturn(Map.of("prod1", 10.0)).when(client).fetchPrices(anyCollection());
+
+        client.validatePrices(Map.of("prod1", 10.0));
+        client.validatePrices(Map.of("prod1", 10.0));
+
+        verify(client, times(1)).fetchPrices(anyCollection());
+    }
+
+    @Test
+    void testValidatePrices_mismatchOrUnknownProduct_shouldThrow() {
+        doReturn(Map.of("prod1", 10.0)).when(client).fetchPrices(anyCollection());
+
+        assertThrows(PriceMismatchException.class, () -> client.validatePrices(Map.of("prod1", 1.0)));
+        assertThrows(ProductNotFoundException.class, () -> client.validatePrices(Map.of("missing", 1.0)));
+    }
+
+    @Test
+    void testValidateBatch_conflictingPricesForOneProduct_shouldThrowWithoutFetching() {
+        CartBatchRequest request = new CartBatchRequest(List.of(
+                new CartBatchOperation(CartOperationType.ADD, "prod1", 1, 10.0),
+                new CartBatchOperation(CartOperationType.SET, "prod1", 2, 12.0)
+        ));
+
+        assertThrows(PriceMismatchException.class, () -> client.validateBatch(request));
+        verify(client, never()).fetchPrices(anyCollection());
+    }
+
+    @Test
+    void testOnProductEvent_shouldDropCachedPrice() {
+        doReturn(Map.of("prod1", 10.0), Map.of("prod1", 12.0)).when(client).fetchPrices(anyCollection());
+        client.validatePrices(Map.of("prod1", 10.0));
+
+        client.onProductEvent(new ProductEvent("prod1", "STOCK_UPDATED", 12.0, System.currentTimeMillis()));
+
+        assertDoesNotThrow(() -> client.validatePrices(Map.of("prod1", 12.0)));
+        verify(client, times(2)).fetchPrices(anyCollection());
+    }
+
+    @Test
+    void testOnProductEvent_duringFetch_shouldNotCacheTheFetchedPrice() {
+        doAnswer(invocation -> {
+            // product-service's clock may run behind ours; the event must win regardless of its timestamp
+            client.onProductEvent(new ProductEvent("prod1", "STOCK_UPDATED", 12.0, 0));
+            return Map.of("prod1", 10.0);
+        }).doReturn(Map.of("prod1", 12.0)).when(client).fetchPrices(anyCollection());
+
+        client.validatePrices(Map.of("prod1", 10.0));
+
+        assertDoesNotThrow(() -> client.validatePrices(Map.of("prod1", 12.0)));
+        verify(client, times(2)).fetchPrices(anyCollection());
+    }
+
+    @Test
+    void testValidatePrices_catalogUnavailable_shouldFailOpen() {
+        doThrow(new ResourceAccessException("connection refused")).when(client).fetchPrices(anyCollection());
+
+        assertDoesNotThrow(() -> client.validatePrices(Map.of("prod1", 1.0)));
+    }
+}
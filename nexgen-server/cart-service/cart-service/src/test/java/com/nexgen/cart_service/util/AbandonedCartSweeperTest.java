@@ -0,0 +1,137 @@
+package com.nexgen.cart_service.util;
+
+import com.nexgen.cart_service.dto.CartsExpiredEvent;
+import com.nexgen.cart_service.repository.CartItemRepository;
+import com.nexgen.cart_service.repository.CartSummaryRepository;
+import com.nexgen.cart_service.service.CartOutboxService;
+import com.nexgen.cart_service.service.CartShardRouter;
+import com.nexgen.cart_service.service.RedisCartStore;
+import com.nexgen.cart_service.service.RedisLockService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AbandonedCartSweeperTest {
+
+    @Mock
+    private CartItemRepository cartRepository;
+    @Mock
+    private CartSummaryRepository summaryRepository;
+    @Mock
+    private CartOutboxService cartOutboxService;
+    @Mock
+    private RedisCartStore redisCartStore;
+    @Mock
+    private RedisLockService lockService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private CartShardRouter cartShardRouter;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AbandonedCartSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new AbandonedCartSweeper(cartRepository, summaryRepository, cartOutboxService, redisCartStore,
+                lockService, transactionTemplate, meterRegistry, cartShardRouter);
+        lenient().when(cartShardRouter.shards()).thenReturn(List.of(CartShardRouter.DEFAULT_SHARD));
+        ReflectionTestUtils.setField(sweeper, "enabled", true);
+        ReflectionTestUtils.setField(sweeper, "idleDays", 30L);
+        ReflectionTestUtils.setField(sweeper, "chunkSize", 2);
+        ReflectionTestUtils.setField(sweeper, "maxChunksPerRun", 5);
+        ReflectionTestUtils.setField(sweeper, "chunkPauseMs", 0L);
+        ReflectionTestUtils.setField(sweeper, "backfillChunkSize", 100);
+        sweeper.initMetrics();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSweep_shouldDeleteIdleCartsChunkByChunk() {
+        when(lockService.tryLock(any(), any())).thenReturn("token");
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(cartRepository.findIdleUserIds(eq(""), any(Instant.class), eq(2))).thenReturn(List.of("u1", "u2"));
+        when(cartRepository.findIdleUserIds(eq("u2"), any(Instant.class), eq(2))).thenReturn(List.of("u3"));
+        when(cartRepository.deleteIdleByUserIdIn(eq(List.of("u1", "u2")), any(Instant.class))).thenReturn(List.of("u1", "u1", "u2"));
+        when(cartRepository.deleteIdleByUserIdIn(eq(List.of("u3")), any(Instant.class))).thenReturn(List.of("u3"));
+
+        sweeper.sweep();
+
+        verify(cartRepository).backfillUpdatedAt(100);
+        verify(summaryRepository).deleteByUserIdIn(List.of("u1", "u2"));
+        verify(redisCartStore).evictCarts(Set.of("u1", "u2"));
+        verify(cartOutboxService).record(eq("cart-sweeper"), argThat((CartsExpiredEvent event) ->
+                event.getUserIds().equals(List.of("u1", "u2")) && event.getItemCount() == 3));
+        verify(lockService).release(any(), eq("token"));
+        assertEquals(4.0, meterRegistry.counter("cart.sweeper.rows.swept").count());
+        assertEquals(3.0, meterRegistry.counter("cart.sweeper.carts.expired").count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSweepChunk_cartTouchedMeanwhile_shouldSkipEventAndEviction() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(cartRepository.deleteIdleByUserIdIn(any(), any())).thenReturn(List.of());
+
+        int rows = sweeper.sweepChunk(List.of("u1"), Instant.now());
+
+        assertEquals(0, rows);
+        verifyNoInteractions(cartOutboxService, summaryRepository);
+        verify(redisCartStore, never()).evictCarts(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSweepChunk_redisMode_shouldLeaveLiveRedisCartsAlone() {
+        when(redisCartStore.isEnabled()).thenReturn(true);
+        // u2's newest changes are only in Redis, so its SQL rows look idle although the cart is in use.
+        when(redisCartStore.findLiveCarts(List.of("u1", "u2"))).thenReturn(Set.of("u2"));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(cartRepository.deleteIdleByUserIdIn(eq(List.of("u1")), any(Instant.class))).thenReturn(List.of("u1"));
+
+        int rows = sweeper.sweepChunk(List.of("u1", "u2"), Instant.now());
+
+        assertEquals(1, rows);
+        verify(redisCartStore).evictCarts(Set.of("u1"));
+    }
+
+    @Test
+    void testSweepChunk_redisMode_allCartsLive_shouldNotTouchDatabase() {
+        when(redisCartStore.isEnabled()).thenReturn(true);
+        when(redisCartStore.findLiveCarts(List.of("u1"))).thenReturn(Set.of("u1"));
+
+        int rows = sweeper.sweepChunk(List.of("u1"), Instant.now());
+
+        assertEquals(0, rows);
+        verifyNoInteractions(cartRepository, transactionTemplate, cartOutboxService);
+    }
+
+    @Test
+    void testSweep_lockHeldElsewhere_shouldSkip() {
+        when(lockService.tryLock(any(), any())).thenReturn(null);
+
+        sweeper.sweep();
+
+        verify(cartRepository, never()).findIdleUserIds(any(), any(), anyInt());
+    }
+}
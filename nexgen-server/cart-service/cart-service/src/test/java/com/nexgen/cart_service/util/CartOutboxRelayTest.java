@@ -0,0 +1,130 @@
+package com.nexgen.cart_service.util;
+
+import com.nexgen.cart_service.dto.AddToCartEvent;
+import com.nexgen.cart_service.dto.CartOutboxEntry;
+import com.nexgen.cart_service.entity.CartOutboxEvent;
+import com.nexgen.cart_service.repository.CartOutboxRepository;
+import com.nexgen.cart_service.service.CartOutboxService;
+import com.nexgen.cart_service.service.CartShardRouter;
+import com.nexgen.cart_service.service.RedisCartStore;
+import com.nexgen.cart_service.service.RedisLockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartOutboxRelayTest {
+
+    @Mock
+    private CartOutboxRepository outboxRepository;
+    @Mock
+    private CartOutboxService outboxService;
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+    @Mock
+    private RedisLockService lockService;
+    @Mock
+    private CartShardRouter cartShardRouter;
+    @Mock
+    private RedisCartStore redisCartStore;
+
+    @InjectMocks
+    private CartOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "maxBatchesPerRun", 1);
+        ReflectionTestUtils.setField(relay, "sendTimeoutMs", 1000L);
+    }
+
+    @Test
+    void testRelayBatch_allAcknowledged_shouldDeleteAllRows() throws Exception {
+        CartOutboxEvent first = outboxEvent(1L);
+        CartOutboxEvent second = outboxEvent(2L);
+        AddToCartEvent payload = new AddToCartEvent("user1", "prod1", 1, 10.0);
+
+        when(outboxRepository.findAllByOrderByIdAsc(any())).thenReturn(List.of(first, second));
+        when(outboxService.readPayload(any())).thenReturn(payload);
+        when(kafkaTemplate.send("cart-item-added", "user1", payload))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        int relayed = relay.relayBatch();
+
+        assertEquals(2, relayed);
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    }
+
+    @Test
+    void testRelayBatch_sendFails_shouldOnlyDeleteAcknowledgedPrefix() throws Exception {
+        CartOutboxEvent first = outboxEvent(1L);
+        CartOutboxEvent second = outboxEvent(2L);
+        AddToCartEvent payload = new AddToCartEvent("user1", "prod1", 1, 10.0);
+
+        when(outboxRepository.findAllByOrderByIdAsc(any())).thenReturn(List.of(first, second));
+        when(outboxService.readPayload(any())).thenReturn(payload);
+        when(kafkaTemplate.send("cart-item-added", "user1", payload))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+
+        int relayed = relay.relayBatch();
+
+        assertEquals(0, relayed);
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    void testRelayRedisBatch_sendFails_shouldOnlyTrimAcknowledgedPrefix() throws Exception {
+        CartOutboxEntry entry = CartOutboxEntry.builder()
+                .topic("cart-item-added")
+                .eventKey("user1")
+                .eventType("AddToCartEvent")
+                .build();
+        AddToCartEvent payload = new AddToCartEvent("user1", "prod1", 1, 10.0);
+
+        when(redisCartStore.peekOutbox(10)).thenReturn(List.of("first", "second", "third"));
+        when(outboxService.readRedisEntry(any())).thenReturn(entry);
+        when(outboxService.readEvent(entry)).thenReturn(payload);
+        when(kafkaTemplate.send("cart-item-added", "user1", payload))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        int relayed = relay.relayRedisBatch();
+
+        assertEquals(0, relayed);
+        verify(redisCartStore).trimOutbox(1);
+    }
+
+    @Test
+    void testRelay_lockHeldElsewhere_shouldSkip() {
+        when(lockService.tryLock(any(), any())).thenReturn(null);
+
+        relay.relay();
+
+        verifyNoInteractions(outboxRepository, kafkaTemplate);
+    }
+
+    private CartOutboxEvent outboxEvent(Long id) {
+        return CartOutboxEvent.builder()
+                .id(id)
+                .topic("cart-item-added")
+                .eventKey("user1")
+                .eventType("AddToCartEvent")
+                .payload("{}")
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.nexgen.cart_service.util;
+
+import com.nexgen.cart_service.service.CartRateLimiterService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class CartRateLimitAspectTest {
+
+    private CartRateLimitAspect aspect;
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        aspect = new CartRateLimitAspect(mock(CartRateLimiterService.class));
+        request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.5");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testClientIp_noTrustedProxies_shouldIgnoreForwardedHeader() {
+        request.addHeader("X-Forwarded-For", "1.2.3.4");
+
+        assertEquals("10.0.0.5", aspect.clientIp());
+    }
+
+    @Test
+    void testClientIp_behindTrustedProxies_shouldSkipClientSuppliedEntries() {
+        ReflectionTestUtils.setField(aspect, "trustedProxies", 2);
+        // "spoofed" was sent by the client; the edge proxy appended 203.0.113.7, the inner proxy 10.0.0.2.
+        request.addHeader("X-Forwarded-For", "spoofed, 203.0.113.7, 10.0.0.2");
+
+        assertEquals("203.0.113.7", aspect.clientIp());
+    }
+
+    @Test
+    void testClientIp_fewerHopsThanTrustedProxies_shouldUseConnectingAddress() {
+        ReflectionTestUtils.setField(aspect, "trustedProxies", 2);
+        request.addHeader("X-Forwarded-For", "203.0.113.7");
+
+        assertEquals("10.0.0.5", aspect.clientIp());
+    }
+}
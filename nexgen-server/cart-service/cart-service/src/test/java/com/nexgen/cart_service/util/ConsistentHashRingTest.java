@@ -0,0 +1,55 @@
+package com.nexgen.cart_service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 30000;
+
+    @Test
+    void testNodeFor_sameKey_shouldMapToSameNodeOnEveryRing() {
+        ConsistentHashRing first = new ConsistentHashRing(List.of("shard-0", "shard-1", "shard-2"), 128);
+        ConsistentHashRing second = new ConsistentHashRing(List.of("shard-2", "shard-0", "shard-1"), 128);
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(first.nodeFor("user" + i), second.nodeFor("user" + i));
+        }
+    }
+
+    @Test
+    void testNodeFor_shouldSpreadKeysAcrossNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("shard-0", "shard-1", "shard-2"), 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.nodeFor("user" + i), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(count > KEYS / 4 && count < KEYS / 2, "unbalanced: " + counts));
+    }
+
+    @Test
+    void testNodeFor_addedNode_shouldOnlyTakeKeysFromOthers() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("shard-0", "shard-1", "shard-2"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("shard-0", "shard-1", "shard-2", "shard-3"), 128);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "user" + i;
+            if (!before.nodeFor(key).equals(after.nodeFor(key))) {
+                assertEquals("shard-3", after.nodeFor(key));
+                moved++;
+            }
+        }
+
+        assertTrue(moved > KEYS / 6 && moved < KEYS / 3, "moved " + moved);
+    }
+}
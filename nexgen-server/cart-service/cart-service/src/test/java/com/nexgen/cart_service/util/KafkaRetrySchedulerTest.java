@@ -0,0 +1,159 @@
+package com.nexgen.cart_service.util;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.nexgen.cart_service.dto.AddToCartEvent;
+import com.nexgen.cart_service.service.CartEventProducerService;
+import com.nexgen.cart_service.service.KafkaFallbackService;
+import com.nexgen.cart_service.service.RedisLockService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaRetrySchedulerTest {
+
+    @Mock
+    private CartEventProducerService cartEventProducer;
+    @Mock
+    private KafkaFallbackService fallbackService;
+    @Mock
+    private RedisLockService lockService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private KafkaRetryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new KafkaRetryScheduler(cartEventProducer, fallbackService, lockService, meterRegistry);
+        ReflectionTestUtils.setField(scheduler, "minBatchSize", 50);
+        ReflectionTestUtils.setField(scheduler, "maxBatchSize", 1000);
+        ReflectionTestUtils.setField(scheduler, "maxRunMs", 5000L);
+        ReflectionTestUtils.setField(scheduler, "ackTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(scheduler, "initialBackoffMs", 5000L);
+        ReflectionTestUtils.setField(scheduler, "maxBackoffMs", 60000L);
+        scheduler.initMetrics();
+
+        when(lockService.tryLock(any(), any())).thenReturn("token");
+        lenient().when(lockService.extend(any(), eq("token"), any())).thenReturn(true);
+    }
+
+    @Test
+    void testRetry_allAcknowledged_shouldAcknowledgeBatch() throws Exception {
+        AddToCartEvent event = new AddToCartEvent("user1", "prod1", 1, 10.0);
+        List<String> batch = List.of("AddToCartEvent::a", "AddToCartEvent::b");
+
+        when(fallbackService.backlogSize()).thenReturn(2L, 0L);
+        when(fallbackService.claimBatch(50)).thenReturn(batch);
+        when(fallbackService.readEvent(any())).thenReturn(event);
+        when(cartEventProducer.sendDirect(event)).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        scheduler.retryFromRedisQueue();
+
+        verify(fallbackService).recoverStranded();
+        verify(fallbackService).acknowledge(batch);
+        verify(fallbackService).requeue(List.of());
+        verify(lockService).release(any(), eq("token"));
+        assertEquals(2.0, meterRegistry.counter("cart.kafka.replay.events").count());
+    }
+
+    @Test
+    void testRetry_sendFails_shouldRequeueAndBackOff() throws Exception {
+        AddToCartEvent event = new AddToCartEvent("user1", "prod1", 1, 10.0);
+
+        when(fallbackService.backlogSize()).thenReturn(2L);
+        when(fallbackService.claimBatch(anyInt())).thenReturn(List.of("AddToCartEvent::a", "AddToCartEvent::b"));
+        when(fallbackService.readEvent(any())).thenReturn(event);
+        when(cartEventProducer.sendDirect(event))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+
+        scheduler.retryFromRedisQueue();
+
+        verify(fallbackService).acknowledge(List.of("AddToCartEvent::a"));
+        verify(fallbackService).requeue(List.of("AddToCartEvent::b"));
+        assertTrue((long) ReflectionTestUtils.getField(scheduler, "nextAttemptAt") > System.currentTimeMillis());
+
+        clearInvocations(lockService);
+        scheduler.retryFromRedisQueue();
+
+        verify(lockService, never()).tryLock(any(), any());
+    }
+
+    @Test
+    void testRetry_sendsNeverAcknowledged_shouldWaitOnOneDeadlineForTheBatch() throws Exception {
+        AddToCartEvent event = new AddToCartEvent("user1", "prod1", 1, 10.0);
+        List<String> batch = List.of("AddToCartEvent::a", "AddToCartEvent::b", "AddToCartEvent::c");
+
+        when(fallbackService.backlogSize()).thenReturn(3L);
+        when(fallbackService.claimBatch(anyInt())).thenReturn(batch);
+        when(fallbackService.readEvent(any())).thenReturn(event);
+        when(cartEventProducer.sendDirect(event)).thenAnswer(invocation -> new CompletableFuture<>());
+
+        long start = System.currentTimeMillis();
+        scheduler.retryFromRedisQueue();
+
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        verify(fallbackService).acknowledge(List.of());
+        verify(fallbackService).requeue(batch);
+    }
+
+    @Test
+    void testRetry_sendBlocksAndThrows_shouldStopSendingTheRestOfTheBatch() throws Exception {
+        AddToCartEvent event = new AddToCartEvent("user1", "prod1", 1, 10.0);
+        List<String> batch = List.of("AddToCartEvent::a", "AddToCartEvent::b");
+
+        when(fallbackService.backlogSize()).thenReturn(2L);
+        when(fallbackService.claimBatch(anyInt())).thenReturn(batch);
+        when(fallbackService.readEvent(any())).thenReturn(event);
+        when(cartEventProducer.sendDirect(event)).thenThrow(new RuntimeException("metadata not available"));
+
+        scheduler.retryFromRedisQueue();
+
+        verify(cartEventProducer, times(1)).sendDirect(event);
+        verify(fallbackService).requeue(batch);
+    }
+
+    @Test
+    void testRetry_lockLostMidRun_shouldLeaveBatchToNewOwner() throws Exception {
+        AddToCartEvent event = new AddToCartEvent("user1", "prod1", 1, 10.0);
+
+        when(fallbackService.backlogSize()).thenReturn(1L);
+        when(fallbackService.claimBatch(anyInt())).thenReturn(List.of("AddToCartEvent::a"));
+        when(fallbackService.readEvent(any())).thenReturn(event);
+        when(cartEventProducer.sendDirect(event)).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        when(lockService.extend(any(), eq("token"), any())).thenReturn(false);
+
+        scheduler.retryFromRedisQueue();
+
+        verify(fallbackService, never()).acknowledge(any());
+        verify(fallbackService, never()).requeue(any());
+        assertTrue((long) ReflectionTestUtils.getField(scheduler, "nextAttemptAt") > System.currentTimeMillis());
+    }
+
+    @Test
+    void testRetry_unreadableEvent_shouldBeDropped() throws Exception {
+        when(fallbackService.backlogSize()).thenReturn(1L, 0L);
+        when(fallbackService.claimBatch(anyInt())).thenReturn(List.of("garbage"));
+        when(fallbackService.readEvent("garbage")).thenThrow(new JsonParseException(null, "bad json"));
+
+        scheduler.retryFromRedisQueue();
+
+        verify(fallbackService).acknowledge(List.of("garbage"));
+        verifyNoInteractions(cartEventProducer);
+    }
+}
@@ -0,0 +1,62 @@
+package com.nexgen.cart_service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryBudgetTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    @Test
+    void testCanRetry_shouldAllowRetriesUpToRatioOfFirstAttempts() {
+        RetryBudget budget = new RetryBudget("cartServiceRetry", 0.1, 0, 10, now::get);
+
+        for (int i = 0; i < 100; i++) {
+            budget.recordAttempt();
+        }
+        for (int i = 0; i < 9; i++) {
+            budget.recordRetry();
+        }
+        assertTrue(budget.canRetry());
+
+        budget.recordRetry();
+        assertFalse(budget.canRetry());
+        assertEquals(0, budget.remaining());
+    }
+
+    @Test
+    void testCanRetry_quietService_shouldKeepMinimumAllowance() {
+        RetryBudget budget = new RetryBudget("cartServiceRetry", 0.1, 1, 10, now::get);
+
+        budget.recordAttempt();
+
+        assertEquals(10, budget.remaining());
+        assertTrue(budget.canRetry());
+    }
+
+    @Test
+    void testWindow_oldBucketsShouldAgeOut() {
+        RetryBudget budget = new RetryBudget("cartServiceRetry", 0.1, 0, 10, now::get);
+        for (int i = 0; i < 100; i++) {
+            budget.recordAttempt();
+        }
+        for (int i = 0; i < 10; i++) {
+            budget.recordRetry();
+        }
+        assertFalse(budget.canRetry());
+
+        now.addAndGet(10);
+        for (int i = 0; i < 50; i++) {
+            budget.recordAttempt();
+        }
+
+        assertEquals(50, budget.attemptsInWindow());
+        assertEquals(0, budget.retriesInWindow());
+        assertTrue(budget.canRetry());
+    }
+}
@@ -0,0 +1,30 @@
+package com.nexgen.order_service.controller;
+
+import com.nexgen.order_service.dto.OrderRequest;
+import com.nexgen.order_service.dto.OrderResponse;
+import com.nexgen.order_service.service.OrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Kept out of OrderController: its class-level /api/v1/orders mapping would turn ":bulk" into a "/:bulk" sub-path.
+@RestController
+@RequestMapping("/api/v1")
+@Tag(name = "Order Bulk Controller", description = "Ingest orders in bulk")
+@RequiredArgsConstructor
+public class OrderBulkController {
+
+    private final OrderService orderService;
+
+    @Operation(summary = "Create many orders in one request")
+    @PostMapping("/orders:bulk")
+    public ResponseEntity<List<OrderResponse>> createOrders(@Valid @RequestBody List<OrderRequest> orderRequests) {
+        List<OrderResponse> orderResponses = orderService.createOrders(orderRequests);
+        return ResponseEntity.ok(orderResponses);
+    }
+}
@@ -1,5 +1,6 @@
 package com.nexgen.order_service.controller;
 
+import com.nexgen.order_service.dto.CursorOrderResponse;
 import com.nexgen.order_service.dto.OrderRequest;
 import com.nexgen.order_service.dto.OrderResponse;
 import com.nexgen.order_service.dto.PagedOrderResponse;
@@ -22,6 +23,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final OrderService orderService;
     private final OrderStatusHistoryRepository historyRepository;
 
@@ -45,10 +48,20 @@ public class OrderController {
         @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size,
         @RequestParam(required = false) OrderStatus status) {
 
-        PagedOrderResponse pagedOrderResponse = orderService.getOrdersByUserId(userId, page, size, status);
+        PagedOrderResponse pagedOrderResponse = orderService.getOrdersByUserId(userId, page, pageSize(size), status);
         return ResponseEntity.ok(pagedOrderResponse);
     }
 
+    @Operation(summary = "Scroll through orders by User ID with a continuation cursor")
+    @GetMapping("/user/{userId}/scroll")
+    public ResponseEntity<CursorOrderResponse> scrollOrdersByUserId(@PathVariable String userId,
+        @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "10") int size,
+        @RequestParam(required = false) OrderStatus status) {
+
+        CursorOrderResponse cursorOrderResponse = orderService.scrollOrdersByUserId(userId, cursor, pageSize(size), status);
+        return ResponseEntity.ok(cursorOrderResponse);
+    }
+
     @Operation(summary = "Cancel an order by Order Number")
     @PutMapping("/{orderNumber}/cancel")
     public ResponseEntity<Void> cancelOrder(@PathVariable String orderNumber) {
@@ -68,4 +81,9 @@ public class OrderController {
         List<OrderStatusHistory> history = historyRepository.findByOrderNumberOrderByChangedAtDesc(orderNumber);
         return ResponseEntity.ok(history);
     }
+
+    // Clamped here rather than in the service so oversized requests share the cache entries of the largest page.
+    private static int pageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
 }
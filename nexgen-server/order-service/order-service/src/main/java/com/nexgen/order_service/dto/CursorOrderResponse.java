@@ -0,0 +1,17 @@
+package com.nexgen.order_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorOrderResponse implements Serializable {
+    private List<OrderResponse> content;
+    private String nextCursor;
+    private boolean last;
+}
@@ -11,7 +11,10 @@ import java.time.Instant;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "ix_orders_user_created_id", columnList = "user_id, created_at, id"),
+        @Index(name = "ux_orders_order_number", columnList = "order_number", unique = true)
+})
 @Data
 @Builder
 @AllArgsConstructor
@@ -19,9 +22,12 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
+    @Convert(converter = OrderNumberConverter.class)
+    @Column(name = "order_number", columnDefinition = "binary(16)", nullable = false, updatable = false)
     private String orderNumber;
 
     private String userId;
@@ -32,6 +38,6 @@ public class Order {
     private Instant createdAt;
 
     @JsonManagedReference
-    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> orderItems;
 }
@@ -0,0 +1,34 @@
+package com.nexgen.order_service.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+// Stores order numbers as 16 big-endian bytes. SQL Server compares binary columns byte by byte, so UUIDv7 numbers
+// keep their time order in the index; uniqueidentifier would not, as it sorts on the last six bytes first.
+@Converter
+public class OrderNumberConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String orderNumber) {
+        if (orderNumber == null) {
+            return null;
+        }
+        UUID uuid = UUID.fromString(orderNumber);
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+}
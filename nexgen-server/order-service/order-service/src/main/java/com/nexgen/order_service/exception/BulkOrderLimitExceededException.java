@@ -0,0 +1,8 @@
+package com.nexgen.order_service.exception;
+
+public class BulkOrderLimitExceededException extends RuntimeException {
+
+    public BulkOrderLimitExceededException(int size, int maxOrders) {
+        super("Bulk request has " + size + " orders, the limit is " + maxOrders);
+    }
+}
@@ -0,0 +1,8 @@
+package com.nexgen.order_service.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String cursor) {
+        super("Invalid order cursor: " + cursor);
+    }
+}
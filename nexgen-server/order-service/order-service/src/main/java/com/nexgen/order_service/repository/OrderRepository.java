@@ -2,14 +2,49 @@ package com.nexgen.order_service.repository;
 
 import com.nexgen.order_service.entity.Order;
 import com.nexgen.order_service.entity.OrderStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    Page<Order> findByUserId(String userId, Pageable pageable);
     Optional<Order> findByOrderNumber(String orderNumber);
-    Page<Order> findByUserIdAndStatus(String userId, OrderStatus status, Pageable pageable);
+
+    // Order lists page the ids first and then load that page's orders with their items in one query, so a page
+    // costs the same handful of statements however many orders it holds.
+    @Query(value = "select o.id from Order o where o.userId = :userId order by o.createdAt desc, o.id desc",
+            countQuery = "select count(o) from Order o where o.userId = :userId")
+    Page<Long> findIdsByUserId(@Param("userId") String userId, Pageable pageable);
+
+    @Query(value = "select o.id from Order o where o.userId = :userId and o.status = :status order by o.createdAt desc, o.id desc",
+            countQuery = "select count(o) from Order o where o.userId = :userId and o.status = :status")
+    Page<Long> findIdsByUserIdAndStatus(@Param("userId") String userId, @Param("status") OrderStatus status, Pageable pageable);
+
+    // Keyset pages for scrolling: both seek on ix_orders_user_created_id, so a deep page costs the same as the first.
+    // The status filter is applied to the rows found through the index and is skipped when status is null.
+    @Query("""
+            select o.id from Order o
+            where o.userId = :userId and (:status is null or o.status = :status)
+            order by o.createdAt desc, o.id desc
+            """)
+    List<Long> findFirstIdsByUserId(@Param("userId") String userId, @Param("status") OrderStatus status, Limit limit);
+
+    @Query("""
+            select o.id from Order o
+            where o.userId = :userId and (:status is null or o.status = :status)
+              and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id))
+            order by o.createdAt desc, o.id desc
+            """)
+    List<Long> findIdsByUserIdBefore(@Param("userId") String userId, @Param("status") OrderStatus status,
+                                     @Param("createdAt") Instant createdAt, @Param("id") Long id, Limit limit);
+
+    @Query("select distinct o from Order o left join fetch o.orderItems where o.id in :ids")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,62 @@
+package com.nexgen.order_service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+// Per-user version that is part of every ordersByUser cache key. A write moves the user to a new version, so their
+// old pages are never read again and expire on their own TTL instead of being evicted.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderCacheVersionService {
+
+    private static final String VERSION_KEY_PREFIX = "order:cache:version:";
+
+    private final StringRedisTemplate redisTemplate;
+
+    // Must outlive the cached pages: if a version key expired while pages for a later version were still cached,
+    // the counter would restart and could land on one of them again. Every read pushes the expiry out again, so the key
+    // stays alive for as long as pages are still being cached under it.
+    @Value("${order.cache.version-ttl-hours:24}")
+    private long versionTtlHours;
+
+    public long currentVersion(String userId) {
+        String version = redisTemplate.opsForValue().getAndExpire(versionKey(userId), Duration.ofHours(versionTtlHours));
+        return version != null ? Long.parseLong(version) : 0;
+    }
+
+    // Bumped after commit: bumping earlier would let a concurrent read cache the uncommitted state under the new version.
+    public void bumpAfterCommit(String userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump(userId);
+            }
+        });
+    }
+
+    private void bump(String userId) {
+        String key = versionKey(userId);
+        try {
+            redisTemplate.opsForValue().increment(key);
+            redisTemplate.expire(key, Duration.ofHours(versionTtlHours));
+        } catch (RuntimeException e) {
+            log.warn("Failed to bump order cache version for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private String versionKey(String userId) {
+        return VERSION_KEY_PREFIX + userId;
+    }
+}
@@ -0,0 +1,34 @@
+package com.nexgen.order_service.service;
+
+import com.nexgen.order_service.entity.Order;
+import com.nexgen.order_service.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+// Position of the last order a client has seen, in the (createdAt, id) order the order history is listed in.
+// Clients get it as an opaque token; the timestamp keeps full precision so equal-millisecond orders are not skipped.
+public record OrderCursor(Instant createdAt, long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static OrderCursor after(Order order) {
+        return new OrderCursor(order.getCreatedAt(), order.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new OrderCursor(Instant.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+}
@@ -7,6 +7,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -28,6 +30,13 @@ public class OrderKafkaProducerService {
         kafkaTemplate.send(orderCreatedTopic, event);
     }
 
+    // Sends are asynchronous, so the producer packs these into batches (up to linger.ms); flush waits for the last one.
+    public void sendOrderCreatedEvents(List<OrderEvent> events) {
+        log.info("Publishing {} Order Created events", events.size());
+        events.forEach(event -> kafkaTemplate.send(orderCreatedTopic, event));
+        kafkaTemplate.flush();
+    }
+
     public void sendOrderCancelledEvent(OrderEvent event) {
         log.info("Publishing Order Cancelled event: {}", event);
         kafkaTemplate.send(orderCancelledTopic, event);
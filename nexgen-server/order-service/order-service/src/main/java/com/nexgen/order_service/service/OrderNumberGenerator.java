@@ -0,0 +1,43 @@
+package com.nexgen.order_service.service;
+
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+// UUIDv7 order numbers: a 48-bit millisecond timestamp up front, then 74 random bits. New orders land at the end of
+// the order_number index instead of at random pages, and the external form is still the usual 36-character UUID.
+@Component
+public class OrderNumberGenerator {
+
+    private final SecureRandom random = new SecureRandom();
+    private final LongSupplier clock;
+
+    public OrderNumberGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    OrderNumberGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public String next() {
+        long millis = clock.getAsLong();
+        long mostSigBits = (millis << 16) | 0x7000L | random.nextInt(1 << 12);
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+
+    // UUID.fromString also accepts shortened groups, so only the canonical lower-case form counts as an order number.
+    public static boolean isValid(String orderNumber) {
+        if (orderNumber == null || orderNumber.length() != 36) {
+            return false;
+        }
+        try {
+            return UUID.fromString(orderNumber).toString().equals(orderNumber);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -1,14 +1,19 @@
 package com.nexgen.order_service.service;
 
+import com.nexgen.order_service.dto.CursorOrderResponse;
 import com.nexgen.order_service.dto.OrderRequest;
 import com.nexgen.order_service.dto.OrderResponse;
 import com.nexgen.order_service.dto.PagedOrderResponse;
 import com.nexgen.order_service.entity.OrderStatus;
 
+import java.util.List;
+
 public interface OrderService {
     OrderResponse createOrder(OrderRequest orderRequest);
+    List<OrderResponse> createOrders(List<OrderRequest> orderRequests);
     OrderResponse getOrderById(String orderNumber);
     PagedOrderResponse getOrdersByUserId(String userId, int page, int size, OrderStatus status);
+    CursorOrderResponse scrollOrdersByUserId(String userId, String cursor, int size, OrderStatus status);
     void cancelOrder(String orderNumber);
     void updateOrderStatus(String orderNumber, OrderStatus newStatus);
 }
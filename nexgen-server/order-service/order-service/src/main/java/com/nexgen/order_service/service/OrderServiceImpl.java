@@ -5,24 +5,30 @@ import com.nexgen.order_service.entity.Order;
 import com.nexgen.order_service.entity.OrderItem;
 import com.nexgen.order_service.entity.OrderStatus;
 import com.nexgen.order_service.entity.OrderStatusHistory;
+import com.nexgen.order_service.exception.BulkOrderLimitExceededException;
 import com.nexgen.order_service.exception.OrderNotFoundException;
 import com.nexgen.order_service.repository.OrderRepository;
 import com.nexgen.order_service.repository.OrderStatusHistoryRepository;
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,49 +40,66 @@ public class OrderServiceImpl implements OrderService {
     private final OrderKafkaProducerService kafkaProducerService;
     private final OrderStatusHistoryRepository historyRepository;
     private final MeterRegistry meterRegistry;
+    private final OrderCacheVersionService cacheVersionService;
+    private final OrderNumberGenerator orderNumberGenerator;
 
-    @Caching(evict = {
-        @CacheEvict(value = "orders", key = "#result.orderNumber", condition = "#result != null"),
-        @CacheEvict(value = "ordersByUser", allEntries = true)
-   })
+    @Value("${order.bulk.max-orders:1000}")
+    private int bulkMaxOrders;
+
+    @CacheEvict(value = "orders", key = "#result.orderNumber", condition = "#result != null")
     @Override
     public OrderResponse createOrder(OrderRequest orderRequest) {
-        Order order = new Order();
-        order.setOrderNumber(UUID.randomUUID().toString());
-        order.setUserId(orderRequest.getUserId());
-        order.setStatus(OrderStatus.CREATED);
-        order.setCreatedAt(Instant.now());
-
-        List<OrderItem> items = orderRequest.getOrderItems()
-                .stream()
-                .map(item -> {
-                    OrderItem orderItem = new OrderItem();
-                    orderItem.setSkuCode(item.getSkuCode());
-                    orderItem.setQuantity(item.getQuantity());
-                    orderItem.setPrice(item.getPrice());
-                    orderItem.setOrder(order);
-                    return orderItem;
-                }).collect(Collectors.toList());
-        order.setOrderItems(items);
+        Order order = buildOrder(orderRequest);
 
         meterRegistry.counter("order.created", "order", order.getOrderNumber()).increment();
 
         Order savedOrder = orderRepository.save(order);
+        cacheVersionService.bumpAfterCommit(savedOrder.getUserId());
 
-        kafkaProducerService.sendOrderCreatedEvent(
-            new OrderEvent(savedOrder.getOrderNumber(), savedOrder.getUserId(), savedOrder.getStatus(), Instant.now().toEpochMilli())
-        );
+        OrderEvent event = new OrderEvent(savedOrder.getOrderNumber(), savedOrder.getUserId(), savedOrder.getStatus(), Instant.now().toEpochMilli());
+        afterCommit(() -> kafkaProducerService.sendOrderCreatedEvent(event));
 
         return mapToResponse(savedOrder);
     }
 
+    // All orders are inserted in one transaction; with sequence ids and ordered inserts Hibernate sends them, and their
+    // items, as JDBC batches at flush instead of one INSERT round trip per row.
+    @Timed(value = "order.create.bulk", description = "Time taken to create a bulk of orders")
+    @Override
+    public List<OrderResponse> createOrders(List<OrderRequest> orderRequests) {
+        if (orderRequests.size() > bulkMaxOrders) {
+            throw new BulkOrderLimitExceededException(orderRequests.size(), bulkMaxOrders);
+        }
+
+        List<Order> orders = orderRequests.stream()
+                .map(this::buildOrder)
+                .collect(Collectors.toList());
+
+        List<Order> savedOrders = orderRepository.saveAll(orders);
+        meterRegistry.counter("order.bulk.created").increment(savedOrders.size());
+
+        savedOrders.stream()
+                .map(Order::getUserId)
+                .distinct()
+                .forEach(cacheVersionService::bumpAfterCommit);
+
+        long timestamp = Instant.now().toEpochMilli();
+        List<OrderEvent> events = savedOrders.stream()
+                .map(order -> new OrderEvent(order.getOrderNumber(), order.getUserId(), order.getStatus(), timestamp))
+                .collect(Collectors.toList());
+        afterCommit(() -> kafkaProducerService.sendOrderCreatedEvents(events));
+
+        return savedOrders.stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
 
     @Timed(value = "order.get.by.id", description = "Time taken to fetch orders by orderId")
     @Cacheable(value = "orders", key = "#orderNumber")
     @Override
     public OrderResponse getOrderById(String orderNumber) {
-        Order order = orderRepository.findByOrderNumber(orderNumber)
-                .orElseThrow(() -> new OrderNotFoundException(orderNumber));
+        Order order = findOrder(orderNumber);
 
         return mapToResponse(order);
     }
@@ -84,20 +107,20 @@ public class OrderServiceImpl implements OrderService {
     @Timed(value = "order.get.by.userid", description = "Time taken to fetch orders by user")
     @Cacheable(
             value = "ordersByUser",
-            key = "#userId + ':' + #page + ':' + #size"
+            key = "#userId + ':v' + @orderCacheVersionService.currentVersion(#userId) + ':' + (#status ?: 'ALL') + ':' + #page + ':' + #size"
     )
     @Override
     public PagedOrderResponse getOrdersByUserId(String userId, int page, int size, OrderStatus status) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Order> orderPage;
+        Page<Long> orderPage;
 
         if (status != null) {
-            orderPage = orderRepository.findByUserIdAndStatus(userId, status, pageable);
+            orderPage = orderRepository.findIdsByUserIdAndStatus(userId, status, pageable);
         } else {
-            orderPage = orderRepository.findByUserId(userId, pageable);
+            orderPage = orderRepository.findIdsByUserId(userId, pageable);
         }
 
-        List<OrderResponse> content = orderPage.getContent()
+        List<OrderResponse> content = findWithItems(orderPage.getContent())
                 .stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
@@ -113,14 +136,36 @@ public class OrderServiceImpl implements OrderService {
     }
 
 
-    @Caching(evict = {
-        @CacheEvict(value = "orders", key = "#orderNumber"),
-        @CacheEvict(value = "ordersByUser", allEntries = true)
-    })
+    @Timed(value = "order.scroll.by.userid", description = "Time taken to scroll orders by user")
+    @Transactional(readOnly = true)
+    @Override
+    public CursorOrderResponse scrollOrdersByUserId(String userId, String cursor, int size, OrderStatus status) {
+        int limit = Math.max(size, 1);
+        List<Long> ids;
+
+        // One row past the page tells whether there is a next page without counting the user's orders.
+        if (cursor == null || cursor.isBlank()) {
+            ids = orderRepository.findFirstIdsByUserId(userId, status, Limit.of(limit + 1));
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            ids = orderRepository.findIdsByUserIdBefore(userId, status, after.createdAt(), after.id(), Limit.of(limit + 1));
+        }
+
+        boolean last = ids.size() <= limit;
+        List<Order> orders = findWithItems(last ? ids : ids.subList(0, limit));
+
+        List<OrderResponse> content = orders.stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+
+        String nextCursor = last || orders.isEmpty() ? null : OrderCursor.after(orders.get(orders.size() - 1)).encode();
+        return new CursorOrderResponse(content, nextCursor, last);
+    }
+
+    @CacheEvict(value = "orders", key = "#orderNumber")
     @Override
     public void cancelOrder(String orderNumber) {
-        Order order = orderRepository.findByOrderNumber(orderNumber)
-                .orElseThrow(() -> new OrderNotFoundException(orderNumber));
+        Order order = findOrder(orderNumber);
 
         order.setStatus(OrderStatus.CANCELLED);
 
@@ -129,17 +174,13 @@ public class OrderServiceImpl implements OrderService {
         );
 
         orderRepository.save(order);
-
+        cacheVersionService.bumpAfterCommit(order.getUserId());
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "orders", key = "#orderNumber"),
-            @CacheEvict(value = "ordersByUser", allEntries = true)
-    })
+    @CacheEvict(value = "orders", key = "#orderNumber")
     public void updateOrderStatus(String orderNumber, OrderStatus newStatus) {
-        Order order = orderRepository.findByOrderNumber(orderNumber)
-                .orElseThrow(() -> new OrderNotFoundException(orderNumber));
+        Order order = findOrder(orderNumber);
 
         meterRegistry.counter("order.status.updated", "status", newStatus.name()).increment();
 
@@ -150,6 +191,7 @@ public class OrderServiceImpl implements OrderService {
 
         order.setStatus(newStatus);
         orderRepository.save(order);
+        cacheVersionService.bumpAfterCommit(order.getUserId());
 
         OrderStatusHistory history = OrderStatusHistory.builder()
                 .orderNumber(orderNumber)
@@ -166,6 +208,66 @@ public class OrderServiceImpl implements OrderService {
         );
     }
 
+    private Order buildOrder(OrderRequest orderRequest) {
+        Order order = new Order();
+        order.setOrderNumber(orderNumberGenerator.next());
+        order.setUserId(orderRequest.getUserId());
+        order.setStatus(OrderStatus.CREATED);
+        order.setCreatedAt(Instant.now());
+
+        List<OrderItem> items = orderRequest.getOrderItems()
+                .stream()
+                .map(item -> {
+                    OrderItem orderItem = new OrderItem();
+                    orderItem.setSkuCode(item.getSkuCode());
+                    orderItem.setQuantity(item.getQuantity());
+                    orderItem.setPrice(item.getPrice());
+                    orderItem.setOrder(order);
+                    return orderItem;
+                }).collect(Collectors.toList());
+        order.setOrderItems(items);
+        return order;
+    }
+
+    // Anything that is not a canonical order number cannot match a row, and would not convert to the stored form.
+    private Order findOrder(String orderNumber) {
+        if (!OrderNumberGenerator.isValid(orderNumber)) {
+            throw new OrderNotFoundException(orderNumber);
+        }
+        return orderRepository.findByOrderNumber(orderNumber)
+                .orElseThrow(() -> new OrderNotFoundException(orderNumber));
+    }
+
+    // The fetch-join query returns orders in no particular order, so they are put back in the order of the id page.
+    private List<Order> findWithItems(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Order> ordersById = orderRepository.findWithItemsByIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        return ids.stream()
+                .map(ordersById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // Like the cache version bump: consumers must not hear of an order whose transaction then rolls back.
+    private void afterCommit(Runnable publish) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish.run();
+            }
+        });
+    }
+
     private OrderResponse mapToResponse(Order order) {
         List<OrderItemResponse> items = order.getOrderItems()
                 .stream()
@@ -3,6 +3,7 @@ package com.nexgen.order_service.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nexgen.order_service.dto.*;
 import com.nexgen.order_service.entity.OrderStatus;
+import com.nexgen.order_service.exception.InvalidCursorException;
 import com.nexgen.order_service.entity.OrderStatusHistory;
 import com.nexgen.order_service.repository.OrderStatusHistoryRepository;
 import com.nexgen.order_service.service.OrderService;
@@ -63,6 +64,27 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.userId").value("user123"));
     }
 
+    @Test
+    @DisplayName("POST /api/v1/orders:bulk - Create Orders in Bulk")
+    void shouldCreateOrdersInBulk() throws Exception {
+        List<OrderRequest> orderRequests = List.of(
+                new OrderRequest("user123", List.of(new OrderItemRequest("ITEM001", 2, 200.00))),
+                new OrderRequest("user456", List.of(new OrderItemRequest("ITEM002", 1, 120.00))));
+
+        when(orderService.createOrders(anyList())).thenReturn(List.of(
+                new OrderResponse("ORD001", "user123", OrderStatus.CREATED, Instant.now(),
+                        List.of(new OrderItemResponse("ITEM001", 2, 200.00))),
+                new OrderResponse("ORD002", "user456", OrderStatus.CREATED, Instant.now(),
+                        List.of(new OrderItemResponse("ITEM002", 1, 120.00)))));
+
+        mockMvc.perform(post("/api/v1/orders:bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].orderNumber").value("ORD002"));
+    }
+
     @Test
     @DisplayName("GET /api/v1/orders/{orderNumber} - Get Order by Order Number")
     void shouldReturnOrderByOrderNumber() throws Exception {
@@ -124,6 +146,46 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.totalElements").value(0));
     }
 
+    @Test
+    void shouldScrollOrdersByUserId() throws Exception {
+        when(orderService.scrollOrdersByUserId("user789", "abc", 10, null))
+                .thenReturn(new CursorOrderResponse(List.of(), "def", false));
+
+        mockMvc.perform(get("/api/v1/orders/user/user789/scroll")
+                        .param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("def"))
+                .andExpect(jsonPath("$.last").value(false));
+    }
+
+    @Test
+    void shouldClampOversizedPages() throws Exception {
+        when(orderService.getOrdersByUserId("user789", 0, 100, null))
+                .thenReturn(new PagedOrderResponse(List.of(), 0, 100, 0, 0, true));
+        when(orderService.scrollOrdersByUserId("user789", null, 100, null))
+                .thenReturn(new CursorOrderResponse(List.of(), null, true));
+
+        mockMvc.perform(get("/api/v1/orders/user/user789").param("size", "1000000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pageSize").value(100));
+        mockMvc.perform(get("/api/v1/orders/user/user789/scroll").param("size", "1000000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.last").value(true));
+
+        Mockito.verify(orderService).getOrdersByUserId("user789", 0, 100, null);
+        Mockito.verify(orderService).scrollOrdersByUserId("user789", null, 100, null);
+    }
+
+    @Test
+    void shouldRejectInvalidScrollCursor() throws Exception {
+        when(orderService.scrollOrdersByUserId(anyString(), anyString(), anyInt(), isNull()))
+                .thenThrow(new InvalidCursorException("bad"));
+
+        mockMvc.perform(get("/api/v1/orders/user/user789/scroll")
+                        .param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldCancelOrder() throws Exception {
         doNothing().when(orderService).cancelOrder(anyString());
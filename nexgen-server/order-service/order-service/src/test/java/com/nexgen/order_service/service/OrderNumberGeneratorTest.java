@@ -0,0 +1,43 @@
+package com.nexgen.order_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderNumberGeneratorTest {
+
+    @Test
+    void shouldGenerateVersion7UuidsCarryingTheTimestamp() {
+        OrderNumberGenerator generator = new OrderNumberGenerator(() -> 1746094530123L);
+
+        UUID uuid = UUID.fromString(generator.next());
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(1746094530123L, uuid.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    void shouldSortLaterOrderNumbersAfterEarlierOnes() {
+        AtomicLong clock = new AtomicLong(1746094530123L);
+        OrderNumberGenerator generator = new OrderNumberGenerator(clock::get);
+
+        String earlier = generator.next();
+        clock.incrementAndGet();
+        String later = generator.next();
+
+        assertTrue(earlier.compareTo(later) < 0);
+    }
+
+    @Test
+    void shouldOnlyAcceptCanonicalOrderNumbers() {
+        assertTrue(OrderNumberGenerator.isValid(new OrderNumberGenerator().next()));
+        assertFalse(OrderNumberGenerator.isValid("ORDER123"));
+        assertFalse(OrderNumberGenerator.isValid("1-1-1-1-1"));
+        assertFalse(OrderNumberGenerator.isValid("0196A3C2-6F1E-7A42-9B3D-2F5C8E1A7D40"));
+        assertFalse(OrderNumberGenerator.isValid(null));
+    }
+}
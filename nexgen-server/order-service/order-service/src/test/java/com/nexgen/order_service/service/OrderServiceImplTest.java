@@ -4,13 +4,20 @@ import com.nexgen.order_service.dto.*;
 import com.nexgen.order_service.entity.Order;
 import com.nexgen.order_service.entity.OrderItem;
 import com.nexgen.order_service.entity.OrderStatus;
+import com.nexgen.order_service.exception.BulkOrderLimitExceededException;
+import com.nexgen.order_service.exception.InvalidCursorException;
 import com.nexgen.order_service.exception.OrderNotFoundException;
 import com.nexgen.order_service.repository.OrderRepository;
 import com.nexgen.order_service.repository.OrderStatusHistoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.data.domain.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.util.*;
@@ -20,6 +27,8 @@ import static org.mockito.Mockito.*;
 
 class OrderServiceImplTest {
 
+    private static final String ORDER_NUMBER = "0196a3c2-6f1e-7a42-9b3d-2f5c8e1a7d40";
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
@@ -32,6 +41,15 @@ class OrderServiceImplTest {
     @Mock
     private OrderKafkaProducerService kafkaProducerService;
 
+    @Mock
+    private OrderCacheVersionService cacheVersionService;
+
+    @Spy
+    private OrderNumberGenerator orderNumberGenerator = new OrderNumberGenerator();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
@@ -53,34 +71,110 @@ class OrderServiceImplTest {
         assertNotNull(response);
         assertEquals("user123", response.getUserId());
         assertEquals(OrderStatus.CREATED, response.getStatus());
+        assertTrue(OrderNumberGenerator.isValid(response.getOrderNumber()));
         assertEquals(1, response.getOrderItems().size());
         verify(orderRepository, times(1)).save(orderCaptor.capture());
         verify(kafkaProducerService).sendOrderCreatedEvent(any(OrderEvent.class));
+        verify(cacheVersionService).bumpAfterCommit("user123");
+    }
+
+    @Test
+    void shouldCreateOrdersInOneSaveAndPublishOneEventEach() {
+        ReflectionTestUtils.setField(orderService, "bulkMaxOrders", 10);
+        List<OrderRequest> requests = List.of(
+                new OrderRequest("user1", List.of(new OrderItemRequest("SKU1", 1, 10.0))),
+                new OrderRequest("user1", List.of(new OrderItemRequest("SKU2", 2, 20.0))),
+                new OrderRequest("user2", List.of(new OrderItemRequest("SKU3", 3, 30.0))));
+
+        when(orderRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        List<OrderResponse> responses = orderService.createOrders(requests);
+
+        assertEquals(3, responses.size());
+        assertEquals(3, responses.stream().map(OrderResponse::getOrderNumber).distinct().count());
+        verify(orderRepository, times(1)).saveAll(anyList());
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(kafkaProducerService).sendOrderCreatedEvents(argThat(events -> events.size() == 3));
+        verify(cacheVersionService).bumpAfterCommit("user1");
+        verify(cacheVersionService).bumpAfterCommit("user2");
+        assertEquals(3.0, meterRegistry.counter("order.bulk.created").count());
+        assertTrue(meterRegistry.find("order.created").counters().isEmpty());
+    }
+
+    @Test
+    void shouldPublishCreatedEventOnlyAfterCommit() {
+        OrderRequest request = new OrderRequest("user123", List.of(new OrderItemRequest("SKU1", 2, 100.0)));
+        when(orderRepository.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            OrderResponse response = orderService.createOrder(request);
+            verify(kafkaProducerService, never()).sendOrderCreatedEvent(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            verify(kafkaProducerService).sendOrderCreatedEvent(argThat(event ->
+                    event.getOrderNumber().equals(response.getOrderNumber())));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldNotPublishBulkOrdersWhenTransactionRollsBack() {
+        ReflectionTestUtils.setField(orderService, "bulkMaxOrders", 10);
+        List<OrderRequest> requests = List.of(
+                new OrderRequest("user1", List.of(new OrderItemRequest("SKU1", 1, 10.0))),
+                new OrderRequest("user2", List.of(new OrderItemRequest("SKU2", 2, 20.0))));
+        when(orderRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            orderService.createOrders(requests);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            verify(kafkaProducerService, never()).sendOrderCreatedEvents(anyList());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldRejectBulkOverTheLimit() {
+        ReflectionTestUtils.setField(orderService, "bulkMaxOrders", 1);
+        List<OrderRequest> requests = List.of(
+                new OrderRequest("user1", List.of(new OrderItemRequest("SKU1", 1, 10.0))),
+                new OrderRequest("user2", List.of(new OrderItemRequest("SKU2", 1, 10.0))));
+
+        assertThrows(BulkOrderLimitExceededException.class, () -> orderService.createOrders(requests));
+        verifyNoInteractions(orderRepository, kafkaProducerService);
     }
 
     @Test
     void testGetOrderById_whenFound() {
         Order order = new Order();
-        order.setOrderNumber("ORDER123");
+        order.setOrderNumber(ORDER_NUMBER);
         order.setUserId("user123");
         order.setStatus(OrderStatus.CREATED);
         order.setCreatedAt(Instant.now());
         order.setOrderItems(List.of(new OrderItem(1L,"SKU1", 2, 50.0, order)));
 
-        when(orderRepository.findByOrderNumber("ORDER123")).thenReturn(Optional.of(order));
+        when(orderRepository.findByOrderNumber(ORDER_NUMBER)).thenReturn(Optional.of(order));
 
-        OrderResponse response = orderService.getOrderById("ORDER123");
+        OrderResponse response = orderService.getOrderById(ORDER_NUMBER);
 
-        assertEquals("ORDER123", response.getOrderNumber());
+        assertEquals(ORDER_NUMBER, response.getOrderNumber());
         assertEquals("user123", response.getUserId());
         assertEquals(1, response.getOrderItems().size());
     }
 
     @Test
     void testGetOrderById_whenNotFound() {
-        when(orderRepository.findByOrderNumber("ORDER123")).thenReturn(Optional.empty());
+        when(orderRepository.findByOrderNumber(ORDER_NUMBER)).thenReturn(Optional.empty());
 
-        assertThrows(OrderNotFoundException.class, () -> orderService.getOrderById("ORDER123"));
+        assertThrows(OrderNotFoundException.class, () -> orderService.getOrderById(ORDER_NUMBER));
     }
 
     @Test
@@ -89,15 +183,17 @@ class OrderServiceImplTest {
         Pageable pageable = PageRequest.of(0, 2);
 
         Order order = new Order();
+        order.setId(1L);
         order.setOrderNumber("ORDER123");
         order.setUserId(userId);
         order.setStatus(OrderStatus.CREATED);
         order.setCreatedAt(Instant.now());
         order.setOrderItems(List.of(new OrderItem(1L,"SKU1", 2, 50.0, order)));
 
-        Page<Order> page = new PageImpl<>(List.of(order), pageable, 1);
+        Page<Long> page = new PageImpl<>(List.of(1L), pageable, 1);
 
-        when(orderRepository.findByUserId(eq(userId), any(Pageable.class))).thenReturn(page);
+        when(orderRepository.findIdsByUserId(eq(userId), any(Pageable.class))).thenReturn(page);
+        when(orderRepository.findWithItemsByIdIn(List.of(1L))).thenReturn(List.of(order));
 
         PagedOrderResponse response = orderService.getOrdersByUserId(userId, 0, 2, null);
 
@@ -105,27 +201,34 @@ class OrderServiceImplTest {
         assertEquals("ORDER123", response.getContent().get(0).getOrderNumber());
     }
 
+    @Test
+    void shouldNotLookUpMalformedOrderNumber() {
+        assertThrows(OrderNotFoundException.class, () -> orderService.getOrderById("ORDER123"));
+        verifyNoInteractions(orderRepository);
+    }
+
     @Test
     void testCancelOrder_whenFound() {
         Order order = new Order();
-        order.setOrderNumber("ORDER123");
+        order.setOrderNumber(ORDER_NUMBER);
         order.setUserId("user123");
         order.setStatus(OrderStatus.CREATED);
 
-        when(orderRepository.findByOrderNumber("ORDER123")).thenReturn(Optional.of(order));
+        when(orderRepository.findByOrderNumber(ORDER_NUMBER)).thenReturn(Optional.of(order));
 
-        orderService.cancelOrder("ORDER123");
+        orderService.cancelOrder(ORDER_NUMBER);
 
         assertEquals(OrderStatus.CANCELLED, order.getStatus());
         verify(kafkaProducerService).sendOrderCancelledEvent(any(OrderEvent.class));
         verify(orderRepository).save(order);
+        verify(cacheVersionService).bumpAfterCommit("user123");
     }
 
     @Test
     void testCancelOrder_whenNotFound() {
-        when(orderRepository.findByOrderNumber("ORDER123")).thenReturn(Optional.empty());
+        when(orderRepository.findByOrderNumber(ORDER_NUMBER)).thenReturn(Optional.empty());
 
-        assertThrows(OrderNotFoundException.class, () -> orderService.cancelOrder("ORDER123"));
+        assertThrows(OrderNotFoundException.class, () -> orderService.cancelOrder(ORDER_NUMBER));
     }
 
     @Test
@@ -134,11 +237,12 @@ class OrderServiceImplTest {
         int page = 0, size = 2;
         Pageable pageable = PageRequest.of(page, size);
 
-        Order order = Order.builder().orderNumber("ORD1").userId(userId).status(OrderStatus.PENDING).build();
+        Order order = Order.builder().id(1L).orderNumber("ORD1").userId(userId).status(OrderStatus.PENDING).build();
         order.setOrderItems(List.of(new OrderItem(1L,"SKU1", 2, 50.0, order)));
-        Page<Order> orderPage = new PageImpl<>(List.of(order), pageable, 1);
+        Page<Long> orderPage = new PageImpl<>(List.of(1L), pageable, 1);
 
-        when(orderRepository.findByUserId(eq(userId), eq(pageable))).thenReturn(orderPage);
+        when(orderRepository.findIdsByUserId(eq(userId), eq(pageable))).thenReturn(orderPage);
+        when(orderRepository.findWithItemsByIdIn(List.of(1L))).thenReturn(List.of(order));
 
         PagedOrderResponse response = orderService.getOrdersByUserId(userId, page, size, null);
 
@@ -153,11 +257,12 @@ class OrderServiceImplTest {
         OrderStatus status = OrderStatus.CONFIRMED;
         Pageable pageable = PageRequest.of(page, size);
 
-        Order order = Order.builder().orderNumber("ORD2").userId(userId).status(status).build();
+        Order order = Order.builder().id(2L).orderNumber("ORD2").userId(userId).status(status).build();
         order.setOrderItems(List.of(new OrderItem(1L,"SKU1", 2, 50.0, order)));
-        Page<Order> orderPage = new PageImpl<>(List.of(order), pageable, 1);
+        Page<Long> orderPage = new PageImpl<>(List.of(2L), pageable, 1);
 
-        when(orderRepository.findByUserIdAndStatus(eq(userId), eq(status), eq(pageable))).thenReturn(orderPage);
+        when(orderRepository.findIdsByUserIdAndStatus(eq(userId), eq(status), eq(pageable))).thenReturn(orderPage);
+        when(orderRepository.findWithItemsByIdIn(List.of(2L))).thenReturn(List.of(order));
 
         PagedOrderResponse response = orderService.getOrdersByUserId(userId, page, size, status);
 
@@ -165,9 +270,84 @@ class OrderServiceImplTest {
         assertEquals("ORD2", response.getContent().get(0).getOrderNumber());
     }
 
+    @Test
+    void shouldKeepPageOrderWhenLoadingItemsForPage() {
+        String userId = "user123";
+        Pageable pageable = PageRequest.of(0, 2);
+
+        Order newer = Order.builder().id(7L).orderNumber("ORD7").userId(userId).status(OrderStatus.CREATED).build();
+        newer.setOrderItems(List.of(new OrderItem(1L,"SKU1", 1, 10.0, newer)));
+        Order older = Order.builder().id(3L).orderNumber("ORD3").userId(userId).status(OrderStatus.CREATED).build();
+        older.setOrderItems(List.of(new OrderItem(2L,"SKU2", 1, 20.0, older)));
+
+        when(orderRepository.findIdsByUserId(userId, pageable)).thenReturn(new PageImpl<>(List.of(7L, 3L), pageable, 2));
+        when(orderRepository.findWithItemsByIdIn(List.of(7L, 3L))).thenReturn(List.of(older, newer));
+
+        PagedOrderResponse response = orderService.getOrdersByUserId(userId, 0, 2, null);
+
+        assertEquals(List.of("ORD7", "ORD3"), response.getContent().stream().map(OrderResponse::getOrderNumber).toList());
+        verify(orderRepository, times(1)).findWithItemsByIdIn(anyCollection());
+    }
+
+    @Test
+    void shouldSkipItemQueryForEmptyPage() {
+        Pageable pageable = PageRequest.of(0, 2);
+        when(orderRepository.findIdsByUserId("user123", pageable)).thenReturn(new PageImpl<>(List.of(), pageable, 0));
+
+        PagedOrderResponse response = orderService.getOrdersByUserId("user123", 0, 2, null);
+
+        assertTrue(response.getContent().isEmpty());
+        verify(orderRepository, never()).findWithItemsByIdIn(anyCollection());
+    }
+
+    @Test
+    void shouldScrollFirstPageAndReturnCursorForNext() {
+        String userId = "user123";
+        Instant createdAt = Instant.parse("2025-05-01T10:15:30.123456Z");
+
+        Order newest = Order.builder().id(9L).orderNumber("ORD9").userId(userId).status(OrderStatus.CREATED).createdAt(createdAt).build();
+        newest.setOrderItems(List.of(new OrderItem(1L,"SKU1", 1, 10.0, newest)));
+        Order older = Order.builder().id(5L).orderNumber("ORD5").userId(userId).status(OrderStatus.CREATED).createdAt(createdAt).build();
+        older.setOrderItems(List.of(new OrderItem(2L,"SKU2", 1, 20.0, older)));
+
+        when(orderRepository.findFirstIdsByUserId(userId, null, Limit.of(3))).thenReturn(List.of(9L, 5L, 4L));
+        when(orderRepository.findWithItemsByIdIn(List.of(9L, 5L))).thenReturn(List.of(newest, older));
+
+        CursorOrderResponse response = orderService.scrollOrdersByUserId(userId, null, 2, null);
+
+        assertEquals(2, response.getContent().size());
+        assertFalse(response.isLast());
+        assertEquals(new OrderCursor(createdAt, 5L), OrderCursor.decode(response.getNextCursor()));
+    }
+
+    @Test
+    void shouldScrollFromCursorWithoutNextCursorOnLastPage() {
+        String userId = "user123";
+        Instant createdAt = Instant.parse("2025-05-01T10:15:30Z");
+        String cursor = new OrderCursor(createdAt, 5L).encode();
+
+        Order order = Order.builder().id(4L).orderNumber("ORD4").userId(userId).status(OrderStatus.CONFIRMED).createdAt(createdAt).build();
+        order.setOrderItems(List.of(new OrderItem(1L,"SKU1", 1, 10.0, order)));
+
+        when(orderRepository.findIdsByUserIdBefore(userId, OrderStatus.CONFIRMED, createdAt, 5L, Limit.of(3))).thenReturn(List.of(4L));
+        when(orderRepository.findWithItemsByIdIn(List.of(4L))).thenReturn(List.of(order));
+
+        CursorOrderResponse response = orderService.scrollOrdersByUserId(userId, cursor, 2, OrderStatus.CONFIRMED);
+
+        assertEquals("ORD4", response.getContent().get(0).getOrderNumber());
+        assertTrue(response.isLast());
+        assertNull(response.getNextCursor());
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThrows(InvalidCursorException.class, () ->
+                orderService.scrollOrdersByUserId("user123", "not-a-cursor", 2, null));
+    }
+
     @Test
     void shouldUpdateOrderStatusAndPublishEvent() {
-        String orderNumber = "ORD1";
+        String orderNumber = ORDER_NUMBER;
         OrderStatus currentStatus = OrderStatus.CONFIRMED;
         OrderStatus newStatus = OrderStatus.DELIVERED;
 
@@ -190,27 +370,29 @@ class OrderServiceImplTest {
                         history.getNewStatus() == newStatus));
 
         verify(kafkaProducerService).sendOrderUpdatedEvent(any(OrderEvent.class));
+        verify(cacheVersionService).bumpAfterCommit("user123");
     }
 
     @Test
     void shouldThrowWhenOrderNotFound() {
-        when(orderRepository.findByOrderNumber("INVALID")).thenReturn(Optional.empty());
+        when(orderRepository.findByOrderNumber(ORDER_NUMBER)).thenReturn(Optional.empty());
 
         assertThrows(OrderNotFoundException.class, () ->
-                orderService.updateOrderStatus("INVALID", OrderStatus.DELIVERED));
+                orderService.updateOrderStatus(ORDER_NUMBER, OrderStatus.DELIVERED));
     }
 
     @Test
     void shouldThrowOnInvalidStatusTransition() {
         Order order = Order.builder()
-                .orderNumber("ORD1")
+                .orderNumber(ORDER_NUMBER)
                 .userId("user123")
                 .status(OrderStatus.CANCELLED)
                 .build();
 
-        when(orderRepository.findByOrderNumber("ORD1")).thenReturn(Optional.of(order));
+        when(orderRepository.findByOrderNumber(ORDER_NUMBER)).thenReturn(Optional.of(order));
 
         assertThrows(IllegalStateException.class, () ->
-                orderService.updateOrderStatus("ORD1", OrderStatus.DELIVERED));
+                orderService.updateOrderStatus(ORDER_NUMBER, OrderStatus.DELIVERED));
+        verifyNoInteractions(cacheVersionService);
     }
 }
@@ -13,6 +13,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/v1/products")
 @RequiredArgsConstructor
@@ -41,6 +44,12 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(summary = "Get current prices for a set of SKU codes")
+    @GetMapping("/prices")
+    public ResponseEntity<Map<String, Double>> getPrices(@RequestParam List<String> skuCodes) {
+        return ResponseEntity.ok(productService.getPricesBySkuCodes(skuCodes));
+    }
+
     @Operation(summary = "Get a product by SKU code")
     @GetMapping("/{skuCode}")
     public ResponseEntity<Product> getBySkuCode(@PathVariable String skuCode) {
@@ -15,4 +15,5 @@ public class ProductEvent {
     private String name;
     private int quantity;
     private long timestamp;
+    private Double price;
 }
\ No newline at end of file
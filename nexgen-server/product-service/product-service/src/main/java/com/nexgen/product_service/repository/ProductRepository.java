@@ -2,8 +2,12 @@ package com.nexgen.product_service.repository;
 
 import com.nexgen.product_service.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
     Optional<Product> findBySkuCode(String skuCode);
+    List<Product> findBySkuCodeIn(Collection<String> skuCodes);
 }
\ No newline at end of file
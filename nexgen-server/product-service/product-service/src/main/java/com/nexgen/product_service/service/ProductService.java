@@ -5,10 +5,14 @@ import com.nexgen.product_service.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.Map;
+
 public interface ProductService {
     Product createProduct(Product product);
     Product updateProduct(String skuCode, Product product);
     void deleteProduct(String skuCode);
     Product getProductBySkuCode(String skuCode);
     RedisPageWrapper<Product> getAllProducts(Pageable pageable);
+    Map<String, Double> getPricesBySkuCodes(Collection<String> skuCodes);
 }
\ No newline at end of file
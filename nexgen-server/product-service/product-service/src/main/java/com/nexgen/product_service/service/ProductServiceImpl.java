@@ -17,6 +17,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
@@ -41,7 +45,8 @@ public class ProductServiceImpl implements ProductService {
                         "CREATED",
                         savedProduct.getName(),
                         savedProduct.getQuantity(),
-                        System.currentTimeMillis()
+                        System.currentTimeMillis(),
+                        savedProduct.getPrice()
                 )
         );
 
@@ -67,7 +72,8 @@ public class ProductServiceImpl implements ProductService {
                 "STOCK_UPDATED",
                 updated.getName(),
                 updated.getQuantity(),
-                System.currentTimeMillis()
+                System.currentTimeMillis(),
+                updated.getPrice()
         ));
 
         productMetrics.incrementStockUpdated();
@@ -88,7 +94,8 @@ public class ProductServiceImpl implements ProductService {
                 "DELETED",
                 existing.getName(),
                 existing.getQuantity(),
-                System.currentTimeMillis()
+                System.currentTimeMillis(),
+                existing.getPrice()
         ));
     }
 
@@ -99,6 +106,13 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new ProductNotFoundException(skuCode));
     }
 
+    @Override
+    public Map<String, Double> getPricesBySkuCodes(Collection<String> skuCodes) {
+        return repository.findBySkuCodeIn(skuCodes).stream()
+                .filter(product -> product.getPrice() != null)
+                .collect(Collectors.toMap(Product::getSkuCode, Product::getPrice, (first, second) -> first));
+    }
+
     @Cacheable(value = "allProducts", key = "'page:' + #pageable.pageNumber + ':size:' + #pageable.pageSize")
     @Override
     public RedisPageWrapper<Product> getAllProducts(Pageable pageable) {